@@ -0,0 +1,130 @@
+package benchmarks;
+
+import manager.BinarySnapshotFormat;
+import manager.CsvSnapshotFormat;
+import manager.FileBackedTaskManager;
+import manager.JsonSnapshotFormat;
+import manager.SnapshotFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сохранение и загрузка FileBackedTaskManager на досках разного размера во всех форматах снимка,
+ * одним файлом и сегментами (перезаписывается только сегмент изменённой задачи).
+ * Доска: 80% задач со временем, остальное — эпики по 10 подзадач.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FileBackedBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"csv", "bin", "json"})
+    public String format;
+
+    @Param({"file", "segments"})
+    public String layout;
+
+    private File file;
+    private FileBackedTaskManager manager;
+    private Task probe;
+    private int flip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = isSegmented()
+                ? Files.createTempDirectory("kanban-bench-" + format).toFile()
+                : File.createTempFile("kanban-bench", "." + format);
+        manager = open();
+        manager.runInBatch(batch -> {
+            int tasks = size * 8 / 10;
+            for (int i = 0; i < tasks; i++) {
+                batch.addTask(new Task("Task " + i, "Description of task " + i, Status.NEW,
+                        BASE.plusHours(i), Duration.ofMinutes(30)));
+            }
+            int created = tasks;
+            while (created < size) {
+                int epicId = batch.addEpic(new Epic("Epic " + created, "Description of epic " + created));
+                created++;
+                for (int i = 0; i < 10 && created < size; i++, created++) {
+                    batch.addSubtask(new Subtask("Subtask " + created, "Description of subtask " + created,
+                            Status.IN_PROGRESS, epicId));
+                }
+            }
+        });
+        probe = manager.getAllTasks().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] segments = file.listFiles();
+        if (segments != null) {
+            for (File segment : segments) {
+                segment.delete();
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Одно изменение задачи — одна перезапись снимка или одного сегмента.
+     */
+    @Benchmark
+    public boolean save() {
+        flip ^= 1;
+        Status status = flip == 0 ? Status.NEW : Status.IN_PROGRESS;
+        return manager.updateTask(new Task(probe.getId(), probe.getTitle(), probe.getDescription(), status,
+                probe.getStartTime(), probe.getDuration()));
+    }
+
+    @Benchmark
+    public FileBackedTaskManager load() {
+        return open();
+    }
+
+    private boolean isSegmented() {
+        return "segments".equals(layout);
+    }
+
+    private FileBackedTaskManager open() {
+        return isSegmented()
+                ? FileBackedTaskManager.withSegments(file, snapshotFormat(), 512)
+                : FileBackedTaskManager.loadFromFile(file, snapshotFormat());
+    }
+
+    private SnapshotFormat snapshotFormat() {
+        return switch (format) {
+            case "bin" -> new BinarySnapshotFormat();
+            case "json" -> new JsonSnapshotFormat();
+            default -> new CsvSnapshotFormat();
+        };
+    }
+}
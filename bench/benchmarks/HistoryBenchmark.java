@@ -0,0 +1,74 @@
+package benchmarks;
+
+import manager.ArrayHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализации истории: чтение истории разного размера и поток добавлений/удалений.
+ * Выделение памяти на операцию видно с профилировщиком gc: {@code bench/run.sh HistoryBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoryBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"linked", "array"})
+    public String impl;
+
+    private HistoryManager history;
+    private Task[] tasks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = "array".equals(impl) ? new ArrayHistoryManager() : new InMemoryHistoryManager();
+        // Задач вдвое больше, чем помещается в историю: половина просмотрена, половина нет
+        tasks = new Task[size * 2];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task(i + 1, "Task " + i, "Desc", Status.NEW, null, Duration.ZERO);
+        }
+        for (int i = 0; i < size; i++) {
+            history.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    /**
+     * Просмотр следующей задачи и удаление той, что была просмотрена size шагов назад:
+     * размер истории остаётся постоянным.
+     */
+    @Benchmark
+    public void addRemoveChurn() {
+        history.add(tasks[(cursor + size) % tasks.length]);
+        history.remove(tasks[cursor].getId());
+        cursor = (cursor + 1) % tasks.length;
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskJsonReader;
+import tasks.TaskJsonWriter;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация доски: строки через String.format (как в CSV-снимке) против потоковой записи JSON
+ * в StringBuilder и в ByteBuffer, а также потоковый разбор JSON обратно в задачи.
+ * Выделение памяти на операцию: {@code bench/run.sh TaskJsonBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskJsonBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Task> tasks;
+    private StringBuilder text;
+    private ByteBuffer bytes;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Task task = i % 5 == 0
+                    ? new Subtask(i, "Subtask " + i, "Description of subtask " + i, Status.IN_PROGRESS, 1,
+                    BASE.plusHours(i), Duration.ofMinutes(45), BASE.plusHours(i).plusMinutes(45))
+                    : new Task(i, "Task " + i, "Description of task " + i, Status.NEW, BASE.plusHours(i), Duration.ofMinutes(30));
+            tasks.add(task);
+        }
+        json = TaskJsonWriter.toJson(tasks);
+        text = new StringBuilder(json.length() * 2);
+        bytes = ByteBuffer.allocate(json.length() * 2);
+    }
+
+    @Benchmark
+    public int stringFormat() {
+        text.setLength(0);
+        for (Task task : tasks) {
+            String startTime = task.getStartTime() != null ? task.getStartTime().toString() : "null";
+            String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "null";
+            String endTime = task.getEndTime() != null ? task.getEndTime().toString() : "null";
+            if (task instanceof Subtask subtask) {
+                text.append(String.format("%d,%s,%s,%s,%s,%s,%s,%s,%d",
+                        task.getId(), task.getType(), task.getTitle(), task.getStatus(),
+                        task.getDescription(), startTime, duration, endTime, subtask.getEpicId()));
+            } else {
+                text.append(String.format("%d,%s,%s,%s,%s,%s,%s,%s",
+                        task.getId(), task.getType(), task.getTitle(), task.getStatus(),
+                        task.getDescription(), startTime, duration, endTime));
+            }
+            text.append('\n');
+        }
+        return text.length();
+    }
+
+    @Benchmark
+    public int jsonToStringBuilder() {
+        text.setLength(0);
+        try (TaskJsonWriter writer = new TaskJsonWriter(text)) {
+            writer.writeArray(tasks);
+        }
+        return text.length();
+    }
+
+    @Benchmark
+    public int jsonToByteBuffer() {
+        bytes.clear();
+        try (TaskJsonWriter writer = new TaskJsonWriter(bytes)) {
+            writer.writeArray(tasks);
+        }
+        return bytes.position();
+    }
+
+    @Benchmark
+    public void jsonRead(Blackhole blackhole) {
+        try (TaskJsonReader reader = new TaskJsonReader(new StringReader(json))) {
+            reader.readArray(blackhole::consume);
+        }
+    }
+}
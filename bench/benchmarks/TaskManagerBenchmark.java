@@ -0,0 +1,112 @@
+package benchmarks;
+
+import manager.InMemoryTaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути InMemoryTaskManager: добавление задач и подзадач (со временем — через индекс приоритетов),
+ * чтение списка приоритетов и обновление подзадач большого эпика.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /**
+     * Менеджер, который наполняется по ходу итерации.
+     */
+    @State(Scope.Thread)
+    public static class Growing {
+        @Param({"true", "false"})
+        public boolean timed;
+
+        InMemoryTaskManager manager;
+        int epicId;
+        long counter;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            manager = new InMemoryTaskManager();
+            epicId = manager.addEpic(new Epic("Epic", "Desc"));
+            counter = 0;
+        }
+
+        LocalDateTime nextStart() {
+            return timed ? BASE.plusMinutes(30 * counter++) : null;
+        }
+    }
+
+    /**
+     * Заполненный менеджер: size задач со временем и эпик с size подзадачами.
+     */
+    @State(Scope.Thread)
+    public static class Populated {
+        @Param({"1000", "100000"})
+        public int size;
+
+        InMemoryTaskManager manager;
+        int epicId;
+        int[] subtaskIds;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            manager = new InMemoryTaskManager();
+            for (int i = 0; i < size; i++) {
+                manager.addTask(new Task("Task " + i, "Desc", Status.NEW, BASE.plusHours(i), Duration.ofMinutes(30)));
+            }
+            epicId = manager.addEpic(new Epic("Epic", "Desc"));
+            subtaskIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                subtaskIds[i] = manager.addSubtask(new Subtask("Subtask " + i, "Desc", Status.NEW, epicId));
+            }
+        }
+    }
+
+    @Benchmark
+    public int addTask(Growing state) {
+        return state.manager.addTask(new Task("Task", "Desc", Status.NEW, state.nextStart(), Duration.ofMinutes(30)));
+    }
+
+    @Benchmark
+    public int addSubtask(Growing state) {
+        return state.manager.addSubtask(new Subtask("Subtask", "Desc", state.epicId, state.nextStart(), Duration.ofMinutes(30)));
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks(Populated state) {
+        return state.manager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public boolean updateSubtaskOfLargeEpic(Populated state) {
+        state.cursor = (state.cursor + 1) % state.subtaskIds.length;
+        Status status = (state.cursor & 1) == 0 ? Status.DONE : Status.IN_PROGRESS;
+        Subtask subtask = new Subtask(state.subtaskIds[state.cursor], "Subtask", "Desc", status, state.epicId,
+                null, null, null);
+        return state.manager.updateSubtask(subtask);
+    }
+}
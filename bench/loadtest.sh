@@ -0,0 +1,11 @@
+#!/bin/sh
+# Собирает проект и запускает нагрузочный тест HTTP API на loopback.
+# Аргументы: [клиентов=64] [секунд=10] [задач=10000], например:
+#   bench/loadtest.sh 256 30
+set -e
+cd "$(dirname "$0")/.."
+OUT=out/loadtest
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -d "$OUT" $(find src bench/loadtest -name '*.java')
+java -cp "$OUT" loadtest.HttpLoadTest "$@"
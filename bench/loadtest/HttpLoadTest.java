@@ -0,0 +1,141 @@
+package loadtest;
+
+import http.HttpTaskServer;
+import manager.Managers;
+import manager.TaskManager;
+import tasks.Status;
+import tasks.Task;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный тест HTTP API на loopback: сервер и клиенты в одном процессе.
+ * Клиенты — виртуальные потоки, каждый в цикле отправляет запрос и ждёт ответ по keep-alive соединению.
+ * Смесь запросов: 90% GET /tasks/{id}, 10% POST /tasks/{id} (обновление).
+ * Задержки первых секунд (прогрев JIT и открытие соединений) не учитываются.
+ * <pre>
+ * bench/loadtest.sh [клиентов=64] [секунд=10] [задач=10000]
+ * </pre>
+ */
+public class HttpLoadTest {
+    private static final int WARMUP_SECONDS = 3;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int taskCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        TaskManager manager = Managers.getConcurrent();
+        for (int i = 0; i < taskCount; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW,
+                    BASE.plusHours(i), Duration.ofMinutes(30)));
+        }
+        HttpTaskServer server = new HttpTaskServer(manager, 0);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + WARMUP_SECONDS * 1_000_000_000L;
+        long deadline = measureFrom + seconds * 1_000_000_000L;
+        List<Future<Samples>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> runClient(client, base, taskCount, measureFrom, deadline)));
+            }
+        }
+        server.stop();
+
+        Samples total = new Samples();
+        for (Future<Samples> result : results) {
+            total.addAll(result.get());
+        }
+        long[] latencies = Arrays.copyOf(total.latencies, total.size);
+        Arrays.sort(latencies);
+        System.out.printf("клиентов %d, задач %d, %d с измерения%n", clients, taskCount, seconds);
+        System.out.printf("запросов %d, ошибок %d, %.0f запросов/с%n",
+                latencies.length, total.errors, latencies.length / (double) seconds);
+        System.out.printf("задержка, мкс: p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1000);
+    }
+
+    private static Samples runClient(HttpClient client, String base, int taskCount, long measureFrom, long deadline) {
+        Samples samples = new Samples();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            int id = random.nextInt(taskCount) + 1;
+            URI uri = URI.create(base + "/tasks/" + id);
+            HttpRequest request;
+            if (random.nextInt(10) == 0) {
+                String json = "{\"title\":\"Задача " + id + "\",\"description\":\"Изменена\",\"status\":\"IN_PROGRESS\","
+                        + "\"startTime\":\"" + BASE.plusHours(id - 1) + "\",\"duration\":30}";
+                request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(json)).build();
+            } else {
+                request = HttpRequest.newBuilder(uri).GET().build();
+            }
+            boolean ok;
+            try {
+                ok = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode() == 200;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long latency = System.nanoTime() - now;
+            if (now >= measureFrom) {
+                if (ok) {
+                    samples.add(latency);
+                } else {
+                    samples.errors++;
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1000;
+    }
+
+    /**
+     * Задержки одного клиента в наносекундах; клиенты пишут каждый в свой массив, без синхронизации.
+     */
+    private static final class Samples {
+        long[] latencies = new long[1 << 16];
+        int size;
+        int errors;
+
+        void add(long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+#!/bin/sh
+# Собирает проект вместе с бенчмарками и запускает JMH.
+# Нужны jar-файлы JMH в lib/ (см. README). Аргументы передаются JMH как есть, например:
+#   bench/run.sh                             все бенчмарки
+#   bench/run.sh TaskManagerBenchmark -prof gc
+#   bench/run.sh FileBacked -p size=1000 -rf json -rff results.json
+set -e
+cd "$(dirname "$0")/.."
+OUT=out/bench
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -cp "lib/*" -processorpath "lib/*" -d "$OUT" $(find src bench -name '*.java')
+java -cp "$OUT:lib/*" org.openjdk.jmh.Main "$@"
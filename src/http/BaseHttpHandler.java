@@ -0,0 +1,133 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.Task;
+import tasks.TaskJsonReader;
+import tasks.TaskJsonWriter;
+import tasks.TaskNotFoundException;
+import tasks.TaskOverlapException;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Общая часть обработчиков: разбор пути, чтение тела, отправка ответа и перевод исключений менеджера в коды HTTP.
+ * Ответ всегда отправляется с известной длиной и обмен закрывается, поэтому соединение остаётся
+ * открытым для следующего запроса клиента (keep-alive).
+ */
+public abstract class BaseHttpHandler implements HttpHandler {
+    protected static final int OK = 200;
+    protected static final int CREATED = 201;
+    protected static final int BAD_REQUEST = 400;
+    protected static final int NOT_FOUND = 404;
+    protected static final int METHOD_NOT_ALLOWED = 405;
+    protected static final int NOT_ACCEPTABLE = 406;
+    protected static final int INTERNAL_ERROR = 500;
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    protected final TaskManager manager;
+
+    protected BaseHttpHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = splitPath(exchange.getRequestURI().getPath());
+            try {
+                handle(exchange, exchange.getRequestMethod(), path);
+            } catch (TaskNotFoundException e) {
+                sendError(exchange, NOT_FOUND, e.getMessage());
+            } catch (TaskOverlapException e) {
+                sendError(exchange, NOT_ACCEPTABLE, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, BAD_REQUEST, e.getMessage());
+            } catch (IOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                sendError(exchange, INTERNAL_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Обрабатывает запрос.
+     * @param path сегменты пути без пустых, например ["epics", "3", "subtasks"]
+     */
+    protected abstract void handle(HttpExchange exchange, String method, String[] path) throws IOException;
+
+    protected static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный id: " + segment);
+        }
+    }
+
+    /**
+     * Проверяет существование эпика, не записывая просмотр в историю, в отличие от getEpic.
+     */
+    protected boolean epicExists(int id) {
+        List<Epic> page = manager.getEpicsPage(id - 1, 1);
+        return !page.isEmpty() && page.get(0).getId() == id;
+    }
+
+    /**
+     * Разбирает задачу из тела запроса; поле type, если оно есть, должно совпадать с ожидаемым.
+     */
+    protected static Task readTask(HttpExchange exchange, TaskType type) throws IOException {
+        Task task = TaskJsonReader.parse(readBody(exchange), type);
+        if (task.getType() != type) {
+            throw new IllegalArgumentException("Ожидалась задача типа " + type + ", получено " + task.getType());
+        }
+        return task;
+    }
+
+    protected static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    protected static void sendJson(HttpExchange exchange, int code, String json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        send(exchange, code, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected static void sendEmpty(HttpExchange exchange, int code) throws IOException {
+        send(exchange, code, NO_BODY);
+    }
+
+    protected static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        sendJson(exchange, code, "{\"error\":" + TaskJsonWriter.quote(message) + "}");
+    }
+
+    protected static void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendError(exchange, METHOD_NOT_ALLOWED, "Метод " + exchange.getRequestMethod() + " не поддерживается");
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        // Длина -1 означает ответ без тела; 0 включил бы chunked-кодирование
+        exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String[] splitPath(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        return start >= end ? new String[0] : path.substring(start, end).split("/");
+    }
+}
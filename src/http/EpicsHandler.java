@@ -0,0 +1,68 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.TaskJsonWriter;
+import tasks.TaskNotFoundException;
+import tasks.TaskType;
+
+import java.io.IOException;
+
+/**
+ * /epics, /epics/{id} и /epics/{id}/subtasks.
+ * Статус и время эпика вычисляются по подзадачам, поэтому в теле POST учитываются только название и описание.
+ */
+public class EpicsHandler extends BaseHttpHandler {
+
+    public EpicsHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 3 && path[2].equals("subtasks")) {
+            if (!method.equals("GET")) {
+                sendMethodNotAllowed(exchange);
+                return;
+            }
+            int id = parseId(path[1]);
+            if (!epicExists(id)) {
+                throw new TaskNotFoundException("Epic with id " + id + " not found");
+            }
+            sendJson(exchange, OK, TaskJsonWriter.toJson(manager.getEpicSubtasks(id)));
+            return;
+        }
+        if (path.length > 2) {
+            sendError(exchange, NOT_FOUND, "Неизвестный путь");
+            return;
+        }
+        Integer id = path.length == 2 ? parseId(path[1]) : null;
+        switch (method) {
+            case "GET" -> sendJson(exchange, OK, id == null
+                    ? TaskJsonWriter.toJson(manager.getAllEpics())
+                    : TaskJsonWriter.toJson(manager.getEpic(id)));
+            case "POST" -> {
+                Epic parsed = (Epic) readTask(exchange, TaskType.EPIC);
+                Epic epic = new Epic(parsed.getTitle(), parsed.getDescription());
+                epic.setId(id != null ? id : parsed.getId());
+                if (epic.getId() == 0) {
+                    manager.addEpic(epic);
+                    sendJson(exchange, CREATED, TaskJsonWriter.toJson(epic));
+                } else {
+                    manager.updateEpic(epic);
+                    sendJson(exchange, OK, TaskJsonWriter.toJson(epic));
+                }
+            }
+            case "DELETE" -> {
+                if (id == null) {
+                    manager.clearEpics();
+                } else {
+                    manager.removeEpic(id);
+                }
+                sendEmpty(exchange, OK);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
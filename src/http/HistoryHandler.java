@@ -0,0 +1,28 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import tasks.TaskJsonWriter;
+
+import java.io.IOException;
+
+/**
+ * GET /history — история просмотров, последний просмотр в конце списка.
+ */
+public class HistoryHandler extends BaseHttpHandler {
+
+    public HistoryHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 1) {
+            sendError(exchange, NOT_FOUND, "Неизвестный путь");
+        } else if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+        } else {
+            sendJson(exchange, OK, TaskJsonWriter.toJson(manager.getHistory()));
+        }
+    }
+}
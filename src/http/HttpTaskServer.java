@@ -0,0 +1,89 @@
+package http;
+
+import com.sun.net.httpserver.HttpServer;
+import manager.Managers;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP API менеджера задач на встроенном в JDK сервере.
+ * Каждый запрос обрабатывается в отдельном виртуальном потоке, поэтому ожидание блокировок менеджера
+ * или медленного клиента не занимает потоки ОС. Менеджер вызывается из многих потоков одновременно
+ * и должен быть потокобезопасным, например {@link Managers#getConcurrent()}.
+ * <pre>
+ * /tasks[/{id}]   /subtasks[/{id}]   /epics[/{id}[/subtasks]]   /history   /prioritized
+ * </pre>
+ */
+public class HttpTaskServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    static {
+        // Сервер JDK пишет заголовки и тело ответа отдельными сегментами. С алгоритмом Нейгла тело ждёт
+        // подтверждения заголовков, а клиент откладывает его до 40 мс: на keep-alive соединении это
+        // задержка почти каждого ответа. Настройка читается один раз при первом создании HttpServer в процессе.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TaskManager manager;
+    private final HttpServer server;
+    private ExecutorService executor;
+
+    public HttpTaskServer(TaskManager manager) {
+        this(manager, DEFAULT_PORT);
+    }
+
+    /**
+     * @param port порт; 0 — любой свободный, узнать его можно через {@link #getPort()}
+     */
+    public HttpTaskServer(TaskManager manager, int port) {
+        this.manager = manager;
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть порт " + port, e);
+        }
+        server.createContext("/tasks", new TasksHandler(manager));
+        server.createContext("/subtasks", new SubtasksHandler(manager));
+        server.createContext("/epics", new EpicsHandler(manager));
+        server.createContext("/history", new HistoryHandler(manager));
+        server.createContext("/prioritized", new PrioritizedHandler(manager));
+    }
+
+    public void start() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Останавливает сервер, давая начатым запросам до секунды на завершение.
+     */
+    public void stop() {
+        server.stop(1);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public TaskManager getManager() {
+        return manager;
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(), port);
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+}
@@ -0,0 +1,28 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import tasks.TaskJsonWriter;
+
+import java.io.IOException;
+
+/**
+ * GET /prioritized — задачи и подзадачи со временем начала в порядке startTime.
+ */
+public class PrioritizedHandler extends BaseHttpHandler {
+
+    public PrioritizedHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 1) {
+            sendError(exchange, NOT_FOUND, "Неизвестный путь");
+        } else if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+        } else {
+            sendJson(exchange, OK, TaskJsonWriter.toJson(manager.getPrioritizedTasks()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import tasks.Subtask;
+import tasks.TaskJsonWriter;
+import tasks.TaskType;
+
+import java.io.IOException;
+
+/**
+ * /subtasks и /subtasks/{id}; те же методы, что у {@link TasksHandler}.
+ * Подзадача создаётся только в существующем эпике, иначе 404.
+ */
+public class SubtasksHandler extends BaseHttpHandler {
+
+    public SubtasksHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length > 2) {
+            sendError(exchange, NOT_FOUND, "Неизвестный путь");
+            return;
+        }
+        Integer id = path.length == 2 ? parseId(path[1]) : null;
+        switch (method) {
+            case "GET" -> sendJson(exchange, OK, id == null
+                    ? TaskJsonWriter.toJson(manager.getAllSubtasks())
+                    : TaskJsonWriter.toJson(manager.getSubtask(id)));
+            case "POST" -> {
+                Subtask subtask = (Subtask) readTask(exchange, TaskType.SUBTASK);
+                if (id != null) {
+                    subtask.setId(id);
+                }
+                if (subtask.getId() == 0) {
+                    if (!epicExists(subtask.getEpicId())) {
+                        sendError(exchange, NOT_FOUND, "Epic with id " + subtask.getEpicId() + " not found");
+                        return;
+                    }
+                    manager.addSubtaskWithoutOverlap(subtask);
+                    sendJson(exchange, CREATED, TaskJsonWriter.toJson(subtask));
+                } else {
+                    manager.updateSubtaskWithoutOverlap(subtask);
+                    sendJson(exchange, OK, TaskJsonWriter.toJson(subtask));
+                }
+            }
+            case "DELETE" -> {
+                if (id == null) {
+                    manager.clearSubtasks();
+                } else {
+                    manager.removeSubtask(id);
+                }
+                sendEmpty(exchange, OK);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import tasks.Task;
+import tasks.TaskJsonWriter;
+import tasks.TaskType;
+
+import java.io.IOException;
+
+/**
+ * /tasks и /tasks/{id}.
+ * <ul>
+ *     <li>GET — все задачи или задача по id</li>
+ *     <li>POST — задача без id (или с id 0) создаётся, с id — обновляется; пересечение по времени — 406</li>
+ *     <li>DELETE — задача по id или все задачи</li>
+ * </ul>
+ */
+public class TasksHandler extends BaseHttpHandler {
+
+    public TasksHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length > 2) {
+            sendError(exchange, NOT_FOUND, "Неизвестный путь");
+            return;
+        }
+        Integer id = path.length == 2 ? parseId(path[1]) : null;
+        switch (method) {
+            case "GET" -> sendJson(exchange, OK, id == null
+                    ? TaskJsonWriter.toJson(manager.getAllTasks())
+                    : TaskJsonWriter.toJson(manager.getTask(id)));
+            case "POST" -> {
+                Task task = readTask(exchange, TaskType.TASK);
+                if (id != null) {
+                    task.setId(id);
+                }
+                // Пересечение проверяет сам менеджер вместе с изменением, иначе параллельный запрос займёт то же время
+                if (task.getId() == 0) {
+                    manager.addTaskWithoutOverlap(task);
+                    sendJson(exchange, CREATED, TaskJsonWriter.toJson(task));
+                } else {
+                    manager.updateTaskWithoutOverlap(task);
+                    sendJson(exchange, OK, TaskJsonWriter.toJson(task));
+                }
+            }
+            case "DELETE" -> {
+                if (id == null) {
+                    manager.clearTasks();
+                } else {
+                    manager.removeTask(id);
+                }
+                sendEmpty(exchange, OK);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package manager;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * История просмотров на примитивных массивах.
+ * Записи лежат в ячейках массивов и связаны в список индексами prev/next, свободные ячейки — в отдельной цепочке.
+ * Ячейка по id находится через открытую адресацию (линейное пробирование, удаление сдвигом без «надгробий»).
+ * add и remove не создают объектов: нет узлов, записей HashMap и упакованных Integer.
+ * Массивы растут удвоением до maxSize, после чего самый давний просмотр вытесняется.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+
+    // Ячейки списка
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+
+    // Индекс id -> ячейка; NONE в slotOf означает пустую позицию таблицы
+    private int[] keys;
+    private int[] slotOf;
+    private int mask;
+
+    /**
+     * Неограниченная история.
+     */
+    public ArrayHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxSize максимальное количество записей; при переполнении вытесняется самый давний просмотр
+     */
+    public ArrayHistoryManager(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.maxSize = maxSize;
+        allocate(Math.min(INITIAL_CAPACITY, maxSize));
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int id = task.getId();
+        int slot = find(id);
+        if (slot != NONE) {
+            tasks[slot] = task;
+            if (slot != tail) {
+                unlink(slot);
+                linkLast(slot);
+            }
+            return;
+        }
+        if (size == maxSize) {
+            remove(tasks[head].getId());
+        }
+        slot = takeSlot();
+        tasks[slot] = task;
+        linkLast(slot);
+        insertKey(id, slot);
+        size++;
+    }
+
+    @Override
+    public void remove(int id) {
+        int pos = position(id);
+        if (slotOf[pos] == NONE) {
+            return;
+        }
+        int slot = slotOf[pos];
+        deleteAt(pos);
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(size);
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        int count = Math.min(Math.max(limit, 0), size);
+        Task[] recent = new Task[count];
+        int slot = tail;
+        for (int i = count - 1; i >= 0; i--) {
+            recent[i] = tasks[slot];
+            slot = prev[slot];
+        }
+        return new ArrayList<>(Arrays.asList(recent));
+    }
+
+    /**
+     * Количество записей в истории.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(tasks, null);
+        Arrays.fill(slotOf, NONE);
+        head = NONE;
+        tail = NONE;
+        freeHead = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        tasks = new Task[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+        keys = new int[tableSize];
+        slotOf = new int[tableSize];
+        Arrays.fill(slotOf, NONE);
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Свободная ячейка: из цепочки освобождённых, иначе следующая неиспользованная; при нехватке массивы удваиваются.
+     */
+    private int takeSlot() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == tasks.length) {
+            grow();
+        }
+        return used++;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min((long) tasks.length * 2, maxSize);
+        tasks = Arrays.copyOf(tasks, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        if (tableSize > keys.length) {
+            int[] oldKeys = keys;
+            int[] oldSlots = slotOf;
+            keys = new int[tableSize];
+            slotOf = new int[tableSize];
+            Arrays.fill(slotOf, NONE);
+            mask = tableSize - 1;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != NONE) {
+                    insertKey(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Позиция id в таблице или пустая позиция, где он должен был бы лежать.
+     */
+    private int position(int id) {
+        int pos = hash(id) & mask;
+        while (slotOf[pos] != NONE && keys[pos] != id) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private int find(int id) {
+        return slotOf[position(id)];
+    }
+
+    private void insertKey(int id, int slot) {
+        int pos = position(id);
+        keys[pos] = id;
+        slotOf[pos] = slot;
+    }
+
+    /**
+     * Удаление из таблицы с линейным пробированием: следующие записи цепочки сдвигаются на освободившееся место,
+     * если их «родная» позиция не лежит между ним и их текущей позицией.
+     */
+    private void deleteAt(int pos) {
+        int hole = pos;
+        int current = pos;
+        while (true) {
+            current = (current + 1) & mask;
+            if (slotOf[current] == NONE) {
+                break;
+            }
+            int home = hash(keys[current]) & mask;
+            boolean stays = hole <= current
+                    ? hole < home && home <= current
+                    : hole < home || home <= current;
+            if (stays) {
+                continue;
+            }
+            keys[hole] = keys[current];
+            slotOf[hole] = slotOf[current];
+            hole = current;
+        }
+        slotOf[hole] = NONE;
+    }
+}
@@ -0,0 +1,337 @@
+package manager;
+
+import tasks.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Компактный двоичный формат снимка.
+ * Заголовок: магическое число, версия формата и количество записей.
+ * Запись: тип (байт), id (varint), статус (байт), title и description (длина + 1 в varint и байты UTF-8,
+ * 0 означает null), флаги наличия startTime/endTime, сами времена (секунды эпохи UTC в zig-zag varlong
+ * и наносекунды в varint), длительность в секундах (zig-zag varlong), для подзадачи — id эпика (varint).
+ * Файл читается через MappedByteBuffer, без разбиения на строки и разбора дат из текста.
+ * Формат, созданный с размером кэша описаний, не читает описания при загрузке: задачи получают ссылку
+ * на описание в файле ({@link StoredText}), а сами тексты читаются через {@link DescriptionStore}
+ * при первом обращении. Такой формат нужно закрыть, когда задачи больше не нужны.
+ */
+public class BinarySnapshotFormat implements SnapshotFormat, Closeable {
+    private static final int MAGIC = 0x4B4E4246; // "KNBF"
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HAS_START = 1;
+    private static final int HAS_END = 2;
+    // Верхняя граница размера записи без учёта строк
+    private static final int MAX_FIXED_RECORD_SIZE = 64;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    // Короткое описание дешевле держать строкой, чем ссылкой на файл
+    private static final int MIN_STORED_LENGTH = 32;
+
+    // null, если описания читаются при загрузке
+    private final DescriptionStore descriptions;
+
+    public BinarySnapshotFormat() {
+        this.descriptions = null;
+    }
+
+    /**
+     * Формат, оставляющий описания на диске.
+     * @param descriptionCacheSize сколько прочитанных описаний держать в LRU-кэше
+     */
+    public BinarySnapshotFormat(int descriptionCacheSize) {
+        this.descriptions = new DescriptionStore(descriptionCacheSize);
+    }
+
+    /**
+     * Формат, оставляющий описания на диске и держащий открытыми не больше maxOpenFiles прочитанных файлов.
+     * @param descriptionCacheSize сколько прочитанных описаний держать в LRU-кэше
+     * @param maxOpenFiles сколько прочитанных файлов держать открытыми одновременно
+     */
+    public BinarySnapshotFormat(int descriptionCacheSize, int maxOpenFiles) {
+        this.descriptions = new DescriptionStore(descriptionCacheSize, maxOpenFiles);
+    }
+
+    @Override
+    public void write(File file, Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.ensure(9);
+            out.buffer.putInt(MAGIC);
+            out.buffer.put(VERSION);
+            out.buffer.putInt(tasks.size() + epics.size() + subtasks.size());
+            for (Task task : tasks) {
+                writeRecord(out, task);
+            }
+            for (Epic epic : epics) {
+                writeRecord(out, epic);
+            }
+            for (Subtask subtask : subtasks) {
+                writeRecord(out, subtask);
+            }
+            out.flush();
+        }
+    }
+
+    @Override
+    public void read(File file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < 9 || buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является двоичным снимком задач: " + file.getPath());
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+            int count = buffer.getInt();
+            Input in = new Input(buffer, descriptions != null ? descriptions.open(file) : null);
+            for (int i = 0; i < count; i++) {
+                consumer.accept(readRecord(in));
+            }
+        }
+    }
+
+    @Override
+    public boolean keepsDescriptionsOnDisk() {
+        return descriptions != null;
+    }
+
+    @Override
+    public void release(File file) throws IOException {
+        if (descriptions != null) {
+            descriptions.release(file);
+        }
+    }
+
+    /**
+     * Закрывает файлы, из которых читаются описания; после этого описания загруженных задач недоступны.
+     */
+    @Override
+    public void close() throws IOException {
+        if (descriptions != null) {
+            descriptions.close();
+        }
+    }
+
+    private static void writeRecord(Output out, Task task) throws IOException {
+        byte[] title = encode(task.getTitle());
+        // Описание, оставшееся в старом снимке, переносится байтами, без разбора и без вытеснения кэша
+        StoredText stored = task.getStoredDescription();
+        byte[] description = stored != null ? stored.bytes() : encode(task.getDescription());
+        out.ensure(MAX_FIXED_RECORD_SIZE + length(title) + length(description));
+
+        ByteBuffer buffer = out.buffer;
+        buffer.put((byte) task.getType().ordinal());
+        putVarInt(buffer, task.getId());
+        buffer.put((byte) task.getStatus().ordinal());
+        putString(buffer, title);
+        putString(buffer, description);
+
+        LocalDateTime startTime = task.getStartTime();
+        LocalDateTime endTime = task.getEndTime();
+        int flags = (startTime != null ? HAS_START : 0) | (endTime != null ? HAS_END : 0);
+        buffer.put((byte) flags);
+        if (startTime != null) {
+            putDateTime(buffer, startTime);
+        }
+        if (endTime != null) {
+            putDateTime(buffer, endTime);
+        }
+        putVarLong(buffer, zigZag(task.getDuration().getSeconds()));
+        if (task instanceof Subtask subtask) {
+            putVarInt(buffer, subtask.getEpicId());
+        }
+    }
+
+    private static Task readRecord(Input in) {
+        ByteBuffer buffer = in.buffer;
+        TaskType type = TYPES[buffer.get()];
+        int id = getVarInt(buffer);
+        Status status = STATUSES[buffer.get()];
+        String title = in.getString();
+        StoredText stored = in.source != null ? in.getStoredText() : null;
+        String description = stored == null ? in.getString() : null;
+        int flags = buffer.get();
+        LocalDateTime startTime = (flags & HAS_START) != 0 ? getDateTime(buffer) : null;
+        LocalDateTime endTime = (flags & HAS_END) != 0 ? getDateTime(buffer) : null;
+        Duration duration = Duration.ofSeconds(unZigZag(getVarLong(buffer)));
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, title, description, status, startTime, duration);
+            case EPIC -> new Epic(id, title, description, status, startTime, duration, endTime);
+            case SUBTASK -> new Subtask(id, title, description, status, getVarInt(buffer), startTime, duration, endTime);
+        };
+        if (stored != null) {
+            task.setStoredDescription(stored);
+        }
+        return task;
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            putVarInt(buffer, 0);
+            return;
+        }
+        putVarInt(buffer, bytes.length + 1);
+        buffer.put(bytes);
+    }
+
+    private static void putDateTime(ByteBuffer buffer, LocalDateTime value) {
+        putVarLong(buffer, zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+        putVarInt(buffer, value.getNano());
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer buffer) {
+        long seconds = unZigZag(getVarLong(buffer));
+        int nanos = getVarInt(buffer);
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Буфер записи, который сбрасывается в канал по мере заполнения.
+     */
+    private static class Output {
+        final FileChannel channel;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Чтение строк с переиспользуемым буфером байт.
+     */
+    private static class Input {
+        final ByteBuffer buffer;
+        // Источник описаний, оставляемых в файле; null — описания читаются строками
+        final TextSource source;
+        byte[] scratch = new byte[256];
+
+        Input(ByteBuffer buffer, TextSource source) {
+            this.buffer = buffer;
+            this.source = source;
+        }
+
+        /**
+         * Пропускает достаточно длинную строку, возвращая ссылку на неё в файле;
+         * для null и короткой строки возвращает null, не сдвигая позицию.
+         */
+        StoredText getStoredText() {
+            int start = buffer.position();
+            int length = getVarInt(buffer) - 1;
+            if (length < MIN_STORED_LENGTH) {
+                buffer.position(start);
+                return null;
+            }
+            StoredText stored = new StoredText(source, buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            return stored;
+        }
+
+        String getString() {
+            int length = getVarInt(buffer) - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Потокобезопасное отображение int -> объект: ключи распределены по сегментам,
+ * каждый сегмент — {@link IntObjectHashMap} под своим монитором.
+ * Потоки, работающие с разными сегментами, друг другу не мешают.
+ * values() и forEach обходят сегменты по очереди и видят каждый сегмент согласованным,
+ * но не всё отображение целиком.
+ */
+public class ConcurrentIntObjectMap<V> implements IntObjectMap<V> {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final IntObjectHashMap<V>[] segments;
+
+    public ConcurrentIntObjectMap() {
+        segments = newSegments(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new IntObjectHashMap<>();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V> IntObjectHashMap<V>[] newSegments(int count) {
+        return new IntObjectHashMap[count];
+    }
+
+    /**
+     * Сегмент выбирается старшими битами мультипликативного хеша:
+     * младшие биты ключа остаются для позиции внутри сегмента.
+     */
+    private IntObjectHashMap<V> segmentFor(int key) {
+        return segments[(key * 0x9E3779B9) >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    @Override
+    public V get(int key) {
+        IntObjectHashMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        IntObjectHashMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    @Override
+    public V put(int key, V value) {
+        IntObjectHashMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    @Override
+    public V remove(int key) {
+        IntObjectHashMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super V> filter) {
+        boolean removed = false;
+        for (IntObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                removed |= segment.removeIf(filter);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Минимум по сегментам; ключи, добавленные параллельно с обходом, могут быть не видны.
+     */
+    @Override
+    public int nextKey(int after) {
+        int next = -1;
+        for (IntObjectHashMap<V> segment : segments) {
+            int candidate;
+            synchronized (segment) {
+                candidate = segment.nextKey(after);
+            }
+            if (candidate >= 0 && (next < 0 || candidate < next)) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (IntObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (IntObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Снимок значений, собранный по сегментам.
+     */
+    @Override
+    public Collection<V> values() {
+        List<V> snapshot = new ArrayList<>();
+        for (IntObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                snapshot.addAll(segment.values());
+            }
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    @Override
+    public void forEach(EntryConsumer<? super V> action) {
+        for (IntObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                segment.forEach(action);
+            }
+        }
+    }
+}
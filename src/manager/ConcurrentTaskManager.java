@@ -0,0 +1,552 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * Хранилища — сегментированные ConcurrentIntObjectMap, id выдаются атомарным счётчиком.
+ * Операции над подзадачами и эпиками блокируют только полосу (stripe) своего эпика,
+ * поэтому пересчёт статуса и времени разных эпиков идёт параллельно.
+ * Индекс приоритетов защищён read-write блокировкой: проверка пересечения и вставка атомарны.
+ * Обновление и удаление задачи идут под её исключительной частью и не перекрываются.
+ * Любое изменение держит разделяемую блокировку пакета, а runInBatch — исключительную,
+ * чтобы откат пакета не затёр параллельные изменения.
+ * Порядок захвата блокировок всегда один: пакет, полосы эпиков по возрастанию, индекс приоритетов.
+ * Потоки задач строятся по снимку хранилищ и не видят изменений, сделанных после вызова.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] epicLocks = new ReentrantLock[STRIPES];
+    private final ReadWriteLock scheduleLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock batchLock = new ReentrantReadWriteLock();
+    private final AtomicInteger idSequence = new AtomicInteger(1);
+    // Индексы запросов и полнотекстовый индекс меняются из разных полос, поэтому защищены отдельным монитором
+    private final Object queryIndexLock = new Object();
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentIntObjectMap<>(), new ConcurrentIntObjectMap<>(), new ConcurrentIntObjectMap<>(),
+                new SynchronizedHistoryManager(new InMemoryHistoryManager()));
+        for (int i = 0; i < STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public int addTask(Task task) {
+        batchLock.readLock().lock();
+        try {
+            return super.addTask(task);
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        batchLock.readLock().lock();
+        try {
+            return super.addEpic(epic);
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int addSubtask(Subtask subtask) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            try {
+                return super.addSubtask(subtask);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Проверка пересечения и добавление идут под исключительной блокировкой расписания,
+     * поэтому два параллельных добавления не займут одно время.
+     */
+    @Override
+    public int addTaskWithoutOverlap(Task task) {
+        batchLock.readLock().lock();
+        try {
+            scheduleLock.writeLock().lock();
+            try {
+                return super.addTaskWithoutOverlap(task);
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int addSubtaskWithoutOverlap(Subtask subtask) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            scheduleLock.writeLock().lock();
+            try {
+                return super.addSubtaskWithoutOverlap(subtask);
+            } finally {
+                scheduleLock.writeLock().unlock();
+                lock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            return super.getEpicSubtasks(epicId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        batchLock.readLock().lock();
+        try {
+            // Удаление старого слота и занятие нового должны быть одним шагом
+            scheduleLock.writeLock().lock();
+            try {
+                return super.updateTask(task);
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateTaskWithoutOverlap(Task task) {
+        batchLock.readLock().lock();
+        try {
+            scheduleLock.writeLock().lock();
+            try {
+                return super.updateTaskWithoutOverlap(task);
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        return withSubtaskLocks(subtask, () -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public boolean updateSubtaskWithoutOverlap(Subtask subtask) {
+        return withSubtaskLocks(subtask, () -> super.updateSubtaskWithoutOverlap(subtask));
+    }
+
+    /**
+     * Выполняет изменение подзадачи под полосами её прежнего и нового эпика и блокировкой расписания.
+     * Прежний эпик читается до захвата полос, поэтому после захвата он проверяется снова:
+     * если параллельное обновление перенесло подзадачу в другой эпик, блокировки берутся заново.
+     */
+    private boolean withSubtaskLocks(Subtask subtask, BooleanSupplier change) {
+        batchLock.readLock().lock();
+        try {
+            while (true) {
+                int oldEpicId = storedEpicId(subtask.getId(), subtask.getEpicId());
+                ReentrantLock first = epicLocks[Math.min(stripe(oldEpicId), stripe(subtask.getEpicId()))];
+                ReentrantLock second = epicLocks[Math.max(stripe(oldEpicId), stripe(subtask.getEpicId()))];
+                first.lock();
+                second.lock();
+                try {
+                    if (storedEpicId(subtask.getId(), subtask.getEpicId()) != oldEpicId) {
+                        continue;
+                    }
+                    scheduleLock.writeLock().lock();
+                    try {
+                        return change.getAsBoolean();
+                    } finally {
+                        scheduleLock.writeLock().unlock();
+                    }
+                } finally {
+                    second.unlock();
+                    first.unlock();
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Эпик сохранённой подзадачи или absent, если подзадачи нет.
+     */
+    private int storedEpicId(int id, int absent) {
+        Subtask current = subtasks.get(id);
+        return current != null ? current.getEpicId() : absent;
+    }
+
+    @Override
+    public boolean updateEpic(Epic epic) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock lock = lockFor(epic.getId());
+            lock.lock();
+            try {
+                return super.updateEpic(epic);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeTask(int id) {
+        batchLock.readLock().lock();
+        try {
+            // Под той же блокировкой, что и updateTask, иначе обновление вернёт удалённую задачу
+            scheduleLock.writeLock().lock();
+            try {
+                super.removeTask(id);
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeSubtask(int id) {
+        batchLock.readLock().lock();
+        try {
+            while (true) {
+                Subtask current = subtasks.get(id);
+                if (current == null) {
+                    super.removeSubtask(id);
+                    return;
+                }
+                ReentrantLock lock = lockFor(current.getEpicId());
+                lock.lock();
+                try {
+                    // Подзадачу могли перенести в другой эпик, пока полоса захватывалась
+                    if (storedEpicId(id, current.getEpicId()) != current.getEpicId()) {
+                        continue;
+                    }
+                    super.removeSubtask(id);
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeEpic(int id) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                super.removeEpic(id);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearTasks() {
+        batchLock.readLock().lock();
+        try {
+            lockAll();
+            try {
+                super.clearTasks();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearSubtasks() {
+        batchLock.readLock().lock();
+        try {
+            lockAll();
+            try {
+                super.clearSubtasks();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearEpics() {
+        batchLock.readLock().lock();
+        try {
+            lockAll();
+            try {
+                super.clearEpics();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        batchLock.readLock().lock();
+        try {
+            lockAll();
+            try {
+                super.clearAll();
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void runInBatch(Consumer<TaskManager> work) {
+        batchLock.writeLock().lock();
+        try {
+            lockAll();
+            try {
+                super.runInBatch(work);
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            batchLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getPrioritizedTasks();
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getPrioritizedTasks(after, limit);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getTasksBetween(from, to);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime after, int limit) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getNextTasks(after, limit);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksActiveAt(LocalDateTime time) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getTasksActiveAt(time);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.findFreeSlot(duration, from, to);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Подзадачи эпика меняются под блокировкой его полосы, поэтому поток строится по их копии.
+     */
+    @Override
+    public Stream<Subtask> streamEpicSubtasks(int epicId) {
+        return getEpicSubtasks(epicId).stream();
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        scheduleLock.readLock().lock();
+        try {
+            return super.getOverlappingTasks(task);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findTasks(TaskType type, Status status, LocalDate day) {
+        synchronized (queryIndexLock) {
+            return super.findTasks(type, status, day);
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        synchronized (queryIndexLock) {
+            return super.search(query, limit);
+        }
+    }
+
+    @Override
+    protected void indexTask(Task task) {
+        synchronized (queryIndexLock) {
+            super.indexTask(task);
+        }
+    }
+
+    @Override
+    protected void indexQuery(Task task) {
+        synchronized (queryIndexLock) {
+            super.indexQuery(task);
+        }
+    }
+
+    @Override
+    protected void unindexTask(int id) {
+        synchronized (queryIndexLock) {
+            super.unindexTask(id);
+        }
+    }
+
+    @Override
+    protected Status indexedStatus(int id) {
+        synchronized (queryIndexLock) {
+            return super.indexedStatus(id);
+        }
+    }
+
+    @Override
+    protected void rebuildQueryIndex() {
+        synchronized (queryIndexLock) {
+            super.rebuildQueryIndex();
+        }
+    }
+
+    @Override
+    protected int generateId() {
+        return idSequence.getAndIncrement();
+    }
+
+    @Override
+    protected void addToHistory(Task task, String sessionId) {
+        super.addToHistory(task, sessionId);
+        // Задачу могли удалить параллельно между чтением и записью в историю
+        if (!isStored(task)) {
+            historyFor(sessionId).remove(task.getId());
+        }
+    }
+
+    @Override
+    protected void addToPrioritized(Task task) {
+        scheduleLock.writeLock().lock();
+        try {
+            super.addToPrioritized(task);
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void removeFromPrioritized(Task task) {
+        scheduleLock.writeLock().lock();
+        try {
+            super.removeFromPrioritized(task);
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(int epicId) {
+        int h = epicId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private ReentrantLock lockFor(int epicId) {
+        return epicLocks[stripe(epicId)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+        scheduleLock.writeLock().lock();
+    }
+
+    private void unlockAll() {
+        scheduleLock.writeLock().unlock();
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+}
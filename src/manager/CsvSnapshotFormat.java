@@ -0,0 +1,422 @@
+package manager;
+
+import tasks.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Текстовый формат снимка: заголовок и по одной строке CSV на задачу.
+ * Строчное представление задачи используется также в журнале изменений.
+ * Название и описание с запятой, кавычкой, переводом строки или обратной косой чертой берутся в кавычки.
+ * Кавычка внутри удваивается, как в RFC 4180, а переводы строки и обратная косая черта экранируются
+ * обратной косой чертой, чтобы запись оставалась одной строкой файла и журнала.
+ * Значение null пишется как null без кавычек, строка "null" — в кавычках.
+ */
+public class CsvSnapshotFormat implements SnapshotFormat {
+    private static final String HEADER = "id,type,title,status,description,startTime,duration,endTime,epicId";
+    private static final String NULL = "null";
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    // Строки копятся в общем буфере и уходят в Writer порциями примерно такого размера
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    @Override
+    public void write(File file, Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks)
+            throws IOException {
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 1024);
+            chunk.append(HEADER).append('\n');
+            for (Task task : tasks) {
+                appendRecord(writer, chunk, task);
+            }
+            for (Epic epic : epics) {
+                appendRecord(writer, chunk, epic);
+            }
+            for (Subtask subtask : subtasks) {
+                appendRecord(writer, chunk, subtask);
+            }
+            writer.append(chunk);
+        }
+    }
+
+    private static void appendRecord(Writer writer, StringBuilder chunk, Task task) throws IOException {
+        appendLine(chunk, task);
+        chunk.append('\n');
+        if (chunk.length() >= CHUNK_SIZE) {
+            writer.append(chunk);
+            chunk.setLength(0);
+        }
+    }
+
+    /**
+     * Читает снимок построчно, не держа в памяти весь файл.
+     * Порядок строк не важен: связи подзадач с эпиками восстанавливает менеджер после чтения.
+     */
+    @Override
+    public void read(File file, Consumer<Task> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                if (line.startsWith("id,")) {
+                    // Пропускаем заголовок CSV
+                    continue;
+                }
+                consumer.accept(fromLine(line));
+            }
+        }
+    }
+
+    /**
+     * Преобразование строки CSV в объект Task/Epic/Subtask.
+     * Поля разбираются по позициям запятых, без String.split и промежуточного массива.
+     */
+    static Task fromLine(String line) {
+        // Формат CSV:
+        // id,type,title,status,description,startTime,duration,endTime,epicId (для Subtask)
+        FieldCursor cursor = new FieldCursor(line);
+        int id = cursor.nextInt();
+        TaskType type = cursor.nextEnum(TYPES);
+        String title = cursor.nextString();
+        Status status = cursor.nextEnum(STATUSES);
+        String description = cursor.nextString();
+        LocalDateTime startTime = cursor.nextDateTime();
+        Duration duration = cursor.isNull() ? cursor.skipNull() : Duration.ofMinutes(cursor.nextLong());
+        LocalDateTime endTime = cursor.nextDateTime();
+
+        return switch (type) {
+            case TASK -> new Task(id, title, description, status, startTime, duration);
+            case EPIC -> new Epic(id, title, description, status, startTime, duration, endTime);
+            case SUBTASK -> new Subtask(id, title, description, status, cursor.nextInt(), startTime, duration, endTime);
+        };
+    }
+
+    /**
+     * Преобразование задачи в строку CSV.
+     */
+    static String toLine(Task task) {
+        StringBuilder line = new StringBuilder(128);
+        appendLine(line, task);
+        return line.toString();
+    }
+
+    /**
+     * Дописывает строку CSV задачи (без перевода строки) поле за полем, без форматной строки
+     * и без промежуточных строк для чисел и дат.
+     */
+    static void appendLine(StringBuilder out, Task task) {
+        out.append(task.getId()).append(',');
+        out.append(task.getType().name()).append(',');
+        appendText(out, task.getTitle());
+        out.append(',');
+        out.append(task.getStatus() != null ? task.getStatus().name() : NULL).append(',');
+        appendText(out, task.getDescription());
+        out.append(',');
+        appendDateTime(out, task.getStartTime());
+        out.append(',');
+        if (task.getDuration() != null) {
+            out.append(task.getDuration().toMinutes());
+        } else {
+            out.append(NULL);
+        }
+        out.append(',');
+        appendDateTime(out, task.getEndTime());
+        if (task instanceof Subtask subtask) {
+            out.append(',').append(subtask.getEpicId());
+        }
+    }
+
+    private static void appendText(StringBuilder out, String value) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = switch (c) {
+                case '"' -> "\"\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (escape != null) {
+                out.append(value, from, i).append(escape);
+                from = i + 1;
+            }
+        }
+        out.append(value, from, value.length()).append('"');
+    }
+
+    /**
+     * Кавычки нужны полю с разделителем, кавычкой, переводом строки или обратной косой чертой,
+     * полю с пробелами по краям (строка снимка обрезается при чтении), пустому полю и строке "null".
+     */
+    private static boolean needsQuotes(String value) {
+        int length = value.length();
+        if (length == 0 || value.charAt(0) <= ' ' || value.charAt(length - 1) <= ' ' || value.equals(NULL)) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Дописывает время в том же виде, что LocalDateTime.toString(), но без промежуточной строки.
+     */
+    private static void appendDateTime(StringBuilder out, LocalDateTime time) {
+        if (time == null) {
+            out.append(NULL);
+            return;
+        }
+        int year = time.getYear();
+        if (year < 1000 || year > 9999) {
+            out.append(time);
+            return;
+        }
+        out.append(year).append('-');
+        appendTwoDigits(out, time.getMonthValue());
+        out.append('-');
+        appendTwoDigits(out, time.getDayOfMonth());
+        out.append('T');
+        appendTwoDigits(out, time.getHour());
+        out.append(':');
+        appendTwoDigits(out, time.getMinute());
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second > 0 || nano > 0) {
+            out.append(':');
+            appendTwoDigits(out, second);
+            if (nano > 0) {
+                // Доли секунды: 3, 6 или 9 цифр, как у LocalTime.toString()
+                out.append('.');
+                if (nano % 1000_000 == 0) {
+                    appendDigits(out, nano / 1000_000, 100);
+                } else if (nano % 1000 == 0) {
+                    appendDigits(out, nano / 1000, 100_000);
+                } else {
+                    appendDigits(out, nano, 100_000_000);
+                }
+            }
+        }
+    }
+
+    private static void appendTwoDigits(StringBuilder out, int value) {
+        appendDigits(out, value, 10);
+    }
+
+    /**
+     * Дописывает value с ведущими нулями; highestDigit — разряд старшей цифры (10, 100, ...).
+     */
+    private static void appendDigits(StringBuilder out, int value, int highestDigit) {
+        for (int divisor = highestDigit; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Последовательный разбор полей строки CSV по позициям запятых.
+     */
+    private static class FieldCursor {
+        private final String line;
+        private int start;
+        private int end;
+
+        FieldCursor(String line) {
+            this.line = line;
+            this.end = -1;
+        }
+
+        private void advance() {
+            start = end + 1;
+            if (start > line.length()) {
+                throw new IllegalArgumentException("Недостаточно полей в строке: " + line);
+            }
+            int comma = line.indexOf(',', start);
+            end = comma >= 0 ? comma : line.length();
+        }
+
+        /**
+         * Проверяет, содержит ли следующее поле значение null, не сдвигая курсор.
+         */
+        boolean isNull() {
+            int from = end + 1;
+            int comma = line.indexOf(',', from);
+            int to = comma >= 0 ? comma : line.length();
+            return to - from == NULL.length() && line.startsWith(NULL, from);
+        }
+
+        <T> T skipNull() {
+            advance();
+            return null;
+        }
+
+        int nextInt() {
+            advance();
+            return Integer.parseInt(line, start, end, 10);
+        }
+
+        long nextLong() {
+            advance();
+            return Long.parseLong(line, start, end, 10);
+        }
+
+        /**
+         * Следующее текстовое поле: в кавычках — с раскрытием экранирования, без кавычек — как есть,
+         * а null без кавычек означает отсутствие значения.
+         */
+        String nextString() {
+            int from = end + 1;
+            if (from < line.length() && line.charAt(from) == '"') {
+                return nextQuoted(from);
+            }
+            advance();
+            if (end - start == NULL.length() && line.startsWith(NULL, start)) {
+                return null;
+            }
+            return line.substring(start, end);
+        }
+
+        /**
+         * Разбирает поле в кавычках, начинающееся с позиции quote. Поле без экранирования
+         * берётся одним substring, иначе собирается в StringBuilder.
+         */
+        private String nextQuoted(int quote) {
+            start = quote + 1;
+            StringBuilder value = null;
+            int from = start;
+            int i = start;
+            while (true) {
+                if (i >= line.length()) {
+                    throw new IllegalArgumentException("Незакрытая кавычка в строке: " + line);
+                }
+                char c = line.charAt(i);
+                if (c == '"' && (i + 1 >= line.length() || line.charAt(i + 1) != '"')) {
+                    break;
+                }
+                if (c == '"' || c == '\\') {
+                    if (value == null) {
+                        value = new StringBuilder(line.length() - start);
+                    }
+                    value.append(line, from, i);
+                    if (c == '"') {
+                        value.append('"');
+                    } else if (i + 1 < line.length()) {
+                        char escaped = line.charAt(i + 1);
+                        value.append(switch (escaped) {
+                            case 'n' -> '\n';
+                            case 'r' -> '\r';
+                            default -> escaped;
+                        });
+                    }
+                    i += 2;
+                    from = i;
+                    continue;
+                }
+                i++;
+            }
+            end = i + 1;
+            if (end < line.length() && line.charAt(end) != ',') {
+                throw new IllegalArgumentException("После закрывающей кавычки ожидалась запятая: " + line);
+            }
+            return value == null ? line.substring(start, i) : value.append(line, from, i).toString();
+        }
+
+        LocalDateTime nextDateTime() {
+            if (isNull()) {
+                return skipNull();
+            }
+            advance();
+            LocalDateTime parsed = parseIsoDateTime();
+            return parsed != null ? parsed : LocalDateTime.parse(line.subSequence(start, end));
+        }
+
+        /**
+         * Быстрый разбор вида yyyy-MM-ddTHH:mm[:ss[.n...]], который выдаёт LocalDateTime.toString().
+         * Для всего остального возвращает null, и поле разбирается стандартным парсером.
+         */
+        private LocalDateTime parseIsoDateTime() {
+            int length = end - start;
+            if (length < 16 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-'
+                    || line.charAt(start + 10) != 'T' || line.charAt(start + 13) != ':') {
+                return null;
+            }
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            int hour = digits(start + 11, 2);
+            int minute = digits(start + 14, 2);
+            int second = 0;
+            int nano = 0;
+            if (length > 16) {
+                if (length < 19 || line.charAt(start + 16) != ':') {
+                    return null;
+                }
+                second = digits(start + 17, 2);
+                if (length > 19) {
+                    int fraction = length - 20;
+                    if (line.charAt(start + 19) != '.' || fraction < 1 || fraction > 9) {
+                        return null;
+                    }
+                    nano = digits(start + 20, fraction);
+                    for (int i = fraction; i < 9 && nano >= 0; i++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            if ((year | month | day | hour | minute | second | nano) < 0) {
+                return null;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        }
+
+        /**
+         * Разбирает count десятичных цифр начиная с позиции from; -1, если встретилась не цифра.
+         */
+        private int digits(int from, int count) {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        <E extends Enum<E>> E nextEnum(E[] values) {
+            advance();
+            int length = end - start;
+            for (E value : values) {
+                String name = value.name();
+                if (name.length() == length && line.startsWith(name, start)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное значение '" + line.substring(start, end) + "' в строке: " + line);
+        }
+    }
+}
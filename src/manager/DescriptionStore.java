@@ -0,0 +1,238 @@
+package manager;
+
+import tasks.TextSource;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Описания задач, оставленные в прочитанных файлах снимков.
+ * Открытыми держатся не больше maxOpenFiles файлов, к которым обращались последними; канал вытесненного файла
+ * закрывается и открывается заново при следующем чтении, если файл на диске тот же, что был прочитан.
+ * Файл, который заменяется новым сохранением, нужно заранее отпустить через {@link #release(File)},
+ * перенеся его описания в память. Единственный снимок без сегментов из LRU не вытесняется и после замены
+ * продолжает читаться через открытый канал до {@link #close()}.
+ * Прочитанные описания держатся в общем LRU-кэше на cacheSize строк.
+ */
+public class DescriptionStore implements Closeable {
+    public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+    private final int maxOpenFiles;
+    // Все источники, из которых ещё читаются описания
+    private final Map<Path, List<FileSource>> sources = new HashMap<>();
+    // Источники с открытым каналом в порядке последнего обращения
+    private final LinkedHashMap<FileSource, FileSource> open = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, String> cache;
+
+    private record Key(FileSource source, long position) {
+    }
+
+    public DescriptionStore(int cacheSize) {
+        this(cacheSize, DEFAULT_MAX_OPEN_FILES);
+    }
+
+    /**
+     * @param cacheSize сколько прочитанных описаний держать в памяти
+     * @param maxOpenFiles сколько файлов снимков держать открытыми одновременно
+     */
+    public DescriptionStore(int cacheSize, int maxOpenFiles) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Размер кэша описаний не может быть отрицательным");
+        }
+        if (maxOpenFiles <= 0) {
+            throw new IllegalArgumentException("Количество открытых файлов должно быть положительным");
+        }
+        this.maxOpenFiles = maxOpenFiles;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Открывает файл снимка как источник описаний.
+     */
+    public synchronized TextSource open(File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        FileSource source = new FileSource(file, path, Files.readAttributes(path, BasicFileAttributes.class));
+        source.channel = channel;
+        sources.computeIfAbsent(path, key -> new ArrayList<>()).add(source);
+        opened(source);
+        return source;
+    }
+
+    /**
+     * Перестаёт читать описания из файла, который сейчас будет заменён или удалён, и закрывает его канал.
+     * Ссылки на описания из этого файла после вызова недействительны.
+     */
+    public synchronized void release(File file) throws IOException {
+        List<FileSource> released = sources.remove(file.toPath().toAbsolutePath().normalize());
+        if (released == null) {
+            return;
+        }
+        for (FileSource source : released) {
+            forget(source);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (FileSource source : open.keySet()) {
+            try {
+                source.channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            source.channel = null;
+        }
+        for (List<FileSource> list : sources.values()) {
+            for (FileSource source : list) {
+                source.released = true;
+            }
+        }
+        open.clear();
+        sources.clear();
+        cache.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private synchronized String cached(Key key) {
+        return cache.get(key);
+    }
+
+    private synchronized void remember(Key key, String text) {
+        cache.put(key, text);
+    }
+
+    /**
+     * Открытый канал источника; вытесненный канал открывается заново.
+     */
+    private synchronized FileChannel channel(FileSource source) throws IOException {
+        if (source.released) {
+            throw new IOException("Файл описаний уже заменён или закрыт");
+        }
+        if (source.channel != null) {
+            open.get(source);
+            return source.channel;
+        }
+        FileChannel channel = FileChannel.open(source.path, StandardOpenOption.READ);
+        if (!source.sameFile(Files.readAttributes(source.path, BasicFileAttributes.class))) {
+            channel.close();
+            throw new IOException("Файл описаний заменён после чтения");
+        }
+        source.channel = channel;
+        opened(source);
+        return channel;
+    }
+
+    private synchronized void discard(FileSource source, FileChannel closed) {
+        if (source.channel == closed) {
+            open.remove(source);
+            source.channel = null;
+        }
+    }
+
+    private void opened(FileSource source) throws IOException {
+        open.put(source, source);
+        if (open.size() <= maxOpenFiles) {
+            return;
+        }
+        FileSource eldest = open.keySet().iterator().next();
+        open.remove(eldest);
+        FileChannel channel = eldest.channel;
+        eldest.channel = null;
+        channel.close();
+    }
+
+    private void forget(FileSource source) throws IOException {
+        source.released = true;
+        cache.keySet().removeIf(key -> key.source() == source);
+        if (open.remove(source) != null) {
+            FileChannel channel = source.channel;
+            source.channel = null;
+            channel.close();
+        }
+    }
+
+    private final class FileSource implements TextSource {
+        private final File file;
+        private final Path path;
+        // Признаки прочитанной версии файла: по ним вытесненный канал открывается только для того же файла
+        private final Object fileKey;
+        private final long size;
+        private final long modified;
+        // Меняются под монитором хранилища; null — канал вытеснен
+        private FileChannel channel;
+        private boolean released;
+
+        FileSource(File file, Path path, BasicFileAttributes attributes) {
+            this.file = file;
+            this.path = path;
+            this.fileKey = attributes.fileKey();
+            this.size = attributes.size();
+            this.modified = attributes.lastModifiedTime().toMillis();
+        }
+
+        boolean sameFile(BasicFileAttributes attributes) {
+            return Objects.equals(fileKey, attributes.fileKey()) && size == attributes.size()
+                    && modified == attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        public String read(long position, int length) {
+            Key key = new Key(this, position);
+            String text = cached(key);
+            if (text == null) {
+                // Чтение идёт вне монитора: одновременный промах по тому же описанию лишь прочитает его дважды
+                text = new String(readBytes(position, length), StandardCharsets.UTF_8);
+                remember(key, text);
+            }
+            return text;
+        }
+
+        @Override
+        public byte[] readBytes(long position, int length) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                while (buffer.hasRemaining()) {
+                    FileChannel current = channel(this);
+                    try {
+                        if (current.read(buffer, position + buffer.position()) < 0) {
+                            throw new IOException("Описание выходит за конец файла");
+                        }
+                    } catch (ClosedChannelException e) {
+                        // Канал вытеснили или закрыли прерыванием во время чтения — откроем заново
+                        discard(this, current);
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw e;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при чтении описания из файла: " + file.getPath(), e);
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -2,18 +2,84 @@ package manager;
 
 import tasks.*;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Менеджер задач, сохраняющий состояние в файл.
+ * Режимы сохранения: перезапись снимка после каждого изменения (по умолчанию),
+ * журнал изменений ({@link #withJournal}), фоновая запись ({@link #withWriteBehind})
+ * и сегментированный снимок ({@link #withSegments}), в котором перезаписываются только изменённые сегменты.
+ * Описания могут оставаться на диске до первого обращения ({@link #withLazyDescriptions}).
+ * Сохранение подписано на события изменений как синхронный слушатель: одно изменение или пакет — одна фиксация.
+ * Изменяющие методы синхронизированы на менеджере, чтобы фоновая запись видела согласованное состояние.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DEL";
+    private static final String CLEAR = "CLR";
+    private static final String ALL = "ALL";
+    private static final int DEFAULT_SEGMENT_SIZE = 512;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final SnapshotFormat format;
+    private final TaskJournal journal;
+    private final int compactionThreshold;
+    // null, если фоновая запись не включена
+    private final WriteBehindWriter writeBehind;
+    // null, если снимок не разбит на сегменты
+    private final SegmentedSnapshot segments;
+    // Сколько предыдущих снимков хранить рядом с файлом
+    private volatile int backupCount;
+    // Меняется под монитором менеджера, поэтому изменение не проскочит между проверкой и остановкой фоновой записи
+    private boolean closed;
 
     public FileBackedTaskManager(File file) {
+        this(file, new CsvSnapshotFormat());
+    }
+
+    /**
+     * Создаёт менеджер, хранящий снимок в указанном формате.
+     * @param file файл снимка
+     * @param format формат снимка: {@link CsvSnapshotFormat}, {@link BinarySnapshotFormat} или {@link JsonSnapshotFormat}
+     */
+    public FileBackedTaskManager(File file, SnapshotFormat format) {
+        this(file, format, 0);
+    }
+
+    /**
+     * @param compactionThreshold количество записей журнала, после которого он сворачивается в снимок;
+     *                            0 — режим без журнала, файл перезаписывается после каждого изменения
+     */
+    private FileBackedTaskManager(File file, SnapshotFormat format, int compactionThreshold) {
+        this(file, format, compactionThreshold, null, 0, 0);
+    }
+
+    /**
+     * @param flushInterval интервал фоновой записи; null — фоновая запись выключена
+     * @param maxPendingChanges количество изменений, после которого фоновая запись начинается досрочно
+     * @param segmentSize количество id в сегменте; 0 — снимок хранится одним файлом
+     */
+    private FileBackedTaskManager(File file, SnapshotFormat format, int compactionThreshold,
+                                  Duration flushInterval, int maxPendingChanges, int segmentSize) {
+        // Иначе индексация при загрузке прочитала бы с диска все описания
+        super(format.keepsDescriptionsOnDisk());
         this.file = file;
+        this.format = format;
+        this.compactionThreshold = compactionThreshold;
+        this.segments = segmentSize == 0 ? null : new SegmentedSnapshot(file, format, segmentSize);
+        this.journal = new TaskJournal(journalFile(file));
         loadFromFileInternal(file);
+        // Поток запускает фабрика после конструктора, чтобы не сохранить недочитанное состояние
+        this.writeBehind = flushInterval == null ? null : new WriteBehindWriter(this::saveSnapshot,
+                flushInterval.toNanos(), maxPendingChanges, "write-behind-" + file.getName());
+        // Сохранение — обычный синхронный слушатель изменений
+        eventBus.subscribeSync(this::persist);
     }
 
     /**
@@ -24,204 +90,494 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return new FileBackedTaskManager(file);
     }
 
+    /**
+     * Загрузка менеджера из снимка в указанном формате.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, SnapshotFormat format) {
+        return new FileBackedTaskManager(file, format);
+    }
+
+    /**
+     * Создаёт менеджер в режиме журнала: каждое изменение дописывается одной строкой
+     * в файл {@code <file>.journal}, а полный снимок пишется только при сворачивании журнала.
+     * @param file файл снимка
+     * @param compactionThreshold количество записей, после которого журнал сворачивается в снимок
+     */
+    public static FileBackedTaskManager withJournal(File file, int compactionThreshold) {
+        return withJournal(file, new CsvSnapshotFormat(), compactionThreshold);
+    }
+
+    /**
+     * Создаёт менеджер в режиме журнала со снимком в указанном формате.
+     * Записи журнала всегда хранятся строками CSV.
+     */
+    public static FileBackedTaskManager withJournal(File file, SnapshotFormat format, int compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сворачивания журнала должен быть положительным");
+        }
+        return new FileBackedTaskManager(file, format, compactionThreshold);
+    }
+
+    /**
+     * Создаёт менеджер в режиме фоновой записи: изменения не ждут диска,
+     * а фоновый поток сохраняет снимок не реже чем раз в flushInterval,
+     * либо раньше, если накопилось maxPendingChanges изменений.
+     * Для гарантированного сохранения нужно вызвать {@link #flush()} или {@link #close()}.
+     * @param file файл снимка
+     * @param flushInterval максимальное отставание файла от памяти
+     * @param maxPendingChanges количество изменений, после которого снимок сохраняется досрочно
+     */
+    public static FileBackedTaskManager withWriteBehind(File file, Duration flushInterval, int maxPendingChanges) {
+        return withWriteBehind(file, new CsvSnapshotFormat(), flushInterval, maxPendingChanges);
+    }
+
+    /**
+     * Создаёт менеджер в режиме фоновой записи со снимком в указанном формате.
+     */
+    public static FileBackedTaskManager withWriteBehind(File file, SnapshotFormat format, Duration flushInterval,
+                                                        int maxPendingChanges) {
+        if (flushInterval.isNegative() || flushInterval.isZero() || maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("Интервал и порог фоновой записи должны быть положительными");
+        }
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, format, 0, flushInterval, maxPendingChanges, 0);
+        manager.writeBehind.start();
+        return manager;
+    }
+
+    /**
+     * Создаёт менеджер с сегментированным снимком в формате CSV и сегментами по {@value #DEFAULT_SEGMENT_SIZE} id.
+     * @param directory каталог сегментов; создаётся, если его нет
+     */
+    public static FileBackedTaskManager withSegments(File directory) {
+        return withSegments(directory, new CsvSnapshotFormat(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Создаёт менеджер, хранящий снимок в каталоге сегментов по segmentSize id в каждом.
+     * После изменения перезаписываются только сегменты изменённых задач, так что сохранение
+     * не зависит от размера доски. Каждый сегмент пишется атомарно, но изменение, задевшее несколько
+     * сегментов (удаление эпика с подзадачами, очистка), атомарно только посегментно;
+     * статусы и время эпиков при загрузке всё равно пересчитываются по подзадачам.
+     * Резервные копии в этом режиме не делаются.
+     * @param directory каталог сегментов; создаётся, если его нет
+     * @param format формат файлов сегментов
+     * @param segmentSize количество id в сегменте
+     */
+    public static FileBackedTaskManager withSegments(File directory, SnapshotFormat format, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным");
+        }
+        return new FileBackedTaskManager(directory, format, 0, null, 0, segmentSize);
+    }
+
+    /**
+     * Создаёт менеджер, который при загрузке не читает описания: в памяти остаются только ссылки
+     * на описания в двоичном снимке, а тексты читаются при первом getDescription() через LRU-кэш.
+     * Прочитанный снимок остаётся открытым до {@link #close()}, и после его замены новым сохранением
+     * описания читаются из прежней версии файла; при сохранении они переносятся байтами без разбора,
+     * но всё же читаются с диска, поэтому полное сохранение дороже, чем с описаниями в памяти.
+     * С таким форматом в режиме сегментов открытыми держатся не больше
+     * {@link DescriptionStore#DEFAULT_MAX_OPEN_FILES} файлов сегментов, а описания перезаписываемого сегмента
+     * переходят в память, после чего его прежний файл закрывается.
+     * {@link #close()} закрывает файлы описаний: у задач, полученных от менеджера до закрытия, описания,
+     * оставшиеся на диске, больше не читаются — getDescription() бросает {@link ManagerSaveException};
+     * toString() описание с диска не читает.
+     * Для частых изменений режим стоит сочетать с журналом: {@code withJournal(file, new BinarySnapshotFormat(cacheSize), n)}.
+     * Полнотекстовый индекс строится при первом поиске.
+     * @param file файл двоичного снимка
+     * @param cacheSize сколько прочитанных описаний держать в памяти
+     */
+    public static FileBackedTaskManager withLazyDescriptions(File file, int cacheSize) {
+        return new FileBackedTaskManager(file, new BinarySnapshotFormat(cacheSize));
+    }
+
+    /**
+     * Включает хранение предыдущих снимков в файлах {@code <file>.bak.1} … {@code <file>.bak.N}.
+     * В режиме сегментов не используется.
+     * @param backupCount количество хранимых снимков; 0 — без резервных копий
+     */
+    public void setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Количество резервных копий не может быть отрицательным");
+        }
+        this.backupCount = backupCount;
+    }
+
+    private static File journalFile(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    private boolean isJournaling() {
+        return compactionThreshold > 0;
+    }
+
     /**
      * Приватный метод загрузки данных из файла.
+     * Сначала читается снимок, затем поверх него проигрываются записи журнала.
      */
     private void loadFromFileInternal(File file) {
         try {
-            String content = Files.readString(Path.of(file.getPath()));
-            String[] lines = content.split("\n");
-
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                if (line.startsWith("id,")) {
-                    // Пропускаем заголовок CSV
-                    continue;
-                }
-                Task task = this.fromString(line);
-                if (task instanceof Epic epic) {
-                    epics.put(epic.getId(), epic);
-                } else if (task instanceof Subtask subtask) {
-                    subtasks.put(subtask.getId(), subtask);
-                    Epic epic = epics.get(subtask.getEpicId());
-                    if (epic != null) {
-                        epic.addSubtask(subtask);
-                    }
-                } else {
-                    tasks.put(task.getId(), task);
-                }
-                if (task.getId() >= nextId) {
-                    nextId = task.getId() + 1;
-                }
-            }
-            // После загрузки обновляем статусы и время эпиков
-            for (Epic epic : epics.values()) {
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
+            if (segments != null) {
+                segments.read(this::restore);
+            } else {
+                SnapshotFiles.deleteStaleTemp(file);
+                format.read(file, this::restore);
             }
-            // Восстанавливаем приоритизированный список задач
-            prioritizedTasks.clear();
-            prioritizedTasks.addAll(tasks.values());
-            prioritizedTasks.addAll(subtasks.values());
-
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при загрузке данных из файла: " + file.getPath(), e);
         }
+
+        boolean hasJournal = journal.getFile().exists();
+        journal.replay(this::applyJournalRecord);
+
+        // Связи подзадач с эпиками и индексы строятся только после чтения всех записей:
+        // журнал мог заменить объекты эпиков и подзадач
+        rebuildIndexes();
+
+        // Журнал, оставшийся от прошлого запуска, сворачиваем в снимок.
+        // Заодно отбрасывается недописанный пакет в его конце, чтобы новые записи не легли следом за ним
+        if (hasJournal) {
+            compact();
+        }
     }
 
     /**
-     * Преобразование строки CSV в объект Task/Epic/Subtask.
+     * Кладёт прочитанную задачу в хранилище соответствующего типа, не трогая связи и индексы.
      */
-    private Task fromString(String value) {
-        // Формат CSV:
-        // id,type,title,status,description,startTime,duration,endTime,epicId (для Subtask)
-        String[] parts = value.split(",", -1);
-        int id = Integer.parseInt(parts[0]);
-        String type = parts[1];
-        String title = parts[2];
-        Status status = Status.valueOf(parts[3]);
-        String description = parts[4];
-        LocalDateTime startTime = "null".equals(parts[5]) ? null : LocalDateTime.parse(parts[5]);
-        Duration duration = "null".equals(parts[6]) ? null : Duration.ofMinutes(Long.parseLong(parts[6]));
-        LocalDateTime endTime = "null".equals(parts[7]) ? null : LocalDateTime.parse(parts[7]);
+    private void restore(Task task) {
+        if (task instanceof Epic epic) {
+            epics.put(epic.getId(), epic);
+        } else if (task instanceof Subtask subtask) {
+            subtasks.put(subtask.getId(), subtask);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+        if (task.getId() >= nextId) {
+            nextId = task.getId() + 1;
+        }
+    }
 
-        return switch (type) {
-            case "TASK" -> new Task(id, title, description, status, startTime, duration);
-            case "EPIC" -> new Epic(id, title, description, status, startTime, duration, endTime);
-            case "SUBTASK" -> {
-                int epicId = Integer.parseInt(parts[8]);
-                yield new Subtask(id, title, description, status, epicId, startTime, duration, endTime);
+    /**
+     * Применяет запись журнала к хранилищам.
+     * Записи идемпотентны, поэтому повторное проигрывание поверх свежего снимка безопасно.
+     */
+    private void applyJournalRecord(String record) {
+        int comma = record.indexOf(',');
+        String op = record.substring(0, comma);
+        String rest = record.substring(comma + 1);
+        switch (op) {
+            case PUT -> restore(CsvSnapshotFormat.fromLine(rest));
+            case DELETE -> {
+                int separator = rest.indexOf(',');
+                int id = Integer.parseInt(rest, separator + 1, rest.length(), 10);
+                switch (TaskType.valueOf(rest.substring(0, separator))) {
+                    case TASK -> tasks.remove(id);
+                    case SUBTASK -> subtasks.remove(id);
+                    case EPIC -> {
+                        epics.remove(id);
+                        subtasks.removeIf(subtask -> subtask.getEpicId() == id);
+                    }
+                }
             }
-            default -> throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
-        };
+            case CLEAR -> {
+                // Общая очистка одной записью встречается в журналах, записанных до появления событий
+                if (ALL.equals(rest)) {
+                    tasks.clear();
+                    subtasks.clear();
+                    epics.clear();
+                    return;
+                }
+                switch (TaskType.valueOf(rest)) {
+                    case TASK -> tasks.clear();
+                    case SUBTASK -> subtasks.clear();
+                    case EPIC -> {
+                        epics.clear();
+                        subtasks.clear();
+                    }
+                }
+            }
+            default -> throw new ManagerSaveException("Неизвестная запись журнала: " + record);
+        }
     }
 
     /**
-     * Сохраняет все задачи в файл в CSV-формате.
+     * Сохраняет все задачи в файл в формате снимка.
+     * Запись атомарна: сбой посреди сохранения оставляет предыдущий снимок нетронутым.
+     * В режиме сегментов переписываются все сегменты, каждый атомарно.
      */
     private void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write("id,type,title,status,description,startTime,duration,endTime,epicId\n");
-            for (Task task : getAllTasks()) {
-                writer.write(toString(task));
-                writer.newLine();
-            }
-            for (Epic epic : getAllEpics()) {
-                writer.write(toString(epic));
-                writer.newLine();
-            }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(toString(subtask));
-                writer.newLine();
+        try {
+            if (segments != null) {
+                segments.markAllWritten();
+                segments.markAll(tasks);
+                segments.markAll(epics);
+                segments.markAll(subtasks);
+                segments.writeDirty(tasks, epics, subtasks);
+                return;
             }
+            SnapshotFiles.write(file, format, tasks.values(), epics.values(), subtasks.values(), backupCount);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении данных в файл: " + file.getPath(), e);
         }
     }
 
     /**
-     * Преобразование задачи в строку CSV.
+     * Сохранение для фонового потока: состояние копируется под монитором менеджера,
+     * а запись в файл идёт уже без него, не задерживая изменения.
+     * Объекты задач не копируются — если эпик пересчитают во время записи, файл догонит его следующим сохранением.
      */
-    private String toString(Task task) {
-        String startTime = task.getStartTime() != null ? task.getStartTime().toString() : "null";
-        String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "null";
-        String endTime = task.getEndTime() != null ? task.getEndTime().toString() : "null";
+    private void saveSnapshot() {
+        List<Task> taskCopy;
+        List<Epic> epicCopy;
+        List<Subtask> subtaskCopy;
+        synchronized (this) {
+            taskCopy = new ArrayList<>(tasks.values());
+            epicCopy = new ArrayList<>(epics.values());
+            subtaskCopy = new ArrayList<>(subtasks.values());
+        }
+        try {
+            SnapshotFiles.write(file, format, taskCopy, epicCopy, subtaskCopy, backupCount);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении данных в файл: " + file.getPath(), e);
+        }
+    }
 
-        if (task instanceof Subtask subtask) {
-            return String.format("%d,%s,%s,%s,%s,%s,%s,%s,%d",
-                    task.getId(), task.getType(), task.getTitle(), task.getStatus(),
-                    task.getDescription(), startTime, duration, endTime, subtask.getEpicId());
+    /**
+     * Слушатель событий, который фиксирует изменение: в режиме журнала дописывает записи,
+     * в режиме фоновой записи помечает состояние изменённым, в режиме сегментов перезаписывает
+     * сегменты изменённых задач, иначе перезаписывает снимок.
+     * Вызывается синхронно, один раз на изменение, а для пакета — один раз на весь пакет.
+     */
+    private void persist(List<TaskEvent> events) {
+        if (writeBehind != null) {
+            writeBehind.markDirty();
+            return;
+        }
+        if (segments != null) {
+            saveSegments(events);
+            return;
+        }
+        if (!isJournaling()) {
+            save();
+            return;
+        }
+        if (events.size() == 1) {
+            journal.append(record(events.get(0)));
         } else {
-            return String.format("%d,%s,%s,%s,%s,%s,%s,%s",
-                    task.getId(), task.getType(), task.getTitle(), task.getStatus(),
-                    task.getDescription(), startTime, duration, endTime);
+            List<String> records = new ArrayList<>(events.size());
+            for (TaskEvent event : events) {
+                records.add(record(event));
+            }
+            journal.appendBatch(records);
+        }
+        if (journal.size() >= compactionThreshold) {
+            compact();
         }
     }
 
-    // Переопределяем методы с вызовом save()
+    /**
+     * Помечает сегменты задач из событий и перезаписывает их.
+     * Очистка затрагивает задачи без отдельных событий на каждую, поэтому после неё переписываются все сегменты на диске.
+     */
+    private void saveSegments(List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            if (event.getKind() == TaskEvent.Kind.CLEARED) {
+                segments.markAllWritten();
+            } else {
+                segments.markChanged(event.getId());
+            }
+        }
+        try {
+            segments.writeDirty(tasks, epics, subtasks);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении данных в каталог: " + file.getPath(), e);
+        }
+    }
 
+    /**
+     * Синхронизирован, потому что при отложенном полнотекстовом индексе первый поиск строит его.
+     */
     @Override
-    public int addTask(Task task) {
-        int id = super.addTask(task);
-        save();
-        return id;
+    public synchronized List<Task> search(String query, int limit) {
+        return super.search(query, limit);
     }
 
+    /**
+     * Выполняет пакет изменений с одной фиксацией в конце: одна перезапись снимка
+     * или одна группа записей журнала. При откате пакета на диск ничего не пишется.
+     */
     @Override
-    public int addSubtask(Subtask subtask) {
-        int id = super.addSubtask(subtask);
+    public synchronized void runInBatch(Consumer<TaskManager> work) {
+        checkOpen();
+        super.runInBatch(work);
+    }
+
+    /**
+     * Сворачивает журнал: пишет полный снимок и очищает журнал.
+     * Снимок пишется первым, так что сбой между шагами лишь приведёт к повторному проигрыванию журнала.
+     */
+    public void compact() {
         save();
-        return id;
+        journal.reset();
     }
 
+    /**
+     * Гарантирует, что все изменения, сделанные до вызова, записаны в файл.
+     * Нужен только в режиме фоновой записи: в остальных режимах изменения пишутся сразу.
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Останавливает фоновую запись, сворачивает журнал и освобождает файл журнала.
+     * Закрывает файлы, из которых читаются оставленные на диске описания: после этого они недоступны.
+     */
     @Override
-    public int addEpic(Epic epic) {
-        int id = super.addEpic(epic);
-        save();
-        return id;
+    public void close() {
+        if (writeBehind != null) {
+            synchronized (this) {
+                closed = true;
+            }
+            writeBehind.close();
+        }
+        if (isJournaling() && journal.size() > 0) {
+            compact();
+        }
+        journal.close();
+        if (format instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при закрытии файла снимка: " + file.getPath(), e);
+            }
+        }
     }
 
+    /**
+     * Запись журнала для события изменения.
+     */
+    private static String record(TaskEvent event) {
+        return switch (event.getKind()) {
+            case CREATED, UPDATED -> {
+                StringBuilder record = new StringBuilder(128).append(PUT).append(',');
+                CsvSnapshotFormat.appendLine(record, event.getTask());
+                yield record.toString();
+            }
+            case REMOVED -> DELETE + "," + event.getType() + "," + event.getId();
+            case CLEARED -> CLEAR + "," + event.getType();
+        };
+    }
+
+    /**
+     * После остановки фоновой записи изменение не применяется: иначе оно осталось бы в памяти, но не на диске.
+     */
+    private void checkOpen() {
+        if (closed && writeBehind != null) {
+            throw new IllegalStateException("Фоновая запись уже остановлена");
+        }
+    }
+
+    // Изменяющие методы синхронизированы, чтобы фоновая запись копировала согласованное состояние;
+    // сохранение делает слушатель событий persist
+
     @Override
-    public boolean updateTask(Task task) {
-        boolean result = super.updateTask(task);
-        save();
-        return result;
+    public synchronized int addTask(Task task) {
+        checkOpen();
+        return super.addTask(task);
     }
 
     @Override
-    public boolean updateSubtask(Subtask subtask) {
-        boolean result = super.updateSubtask(subtask);
-        save();
-        return result;
+    public synchronized int addSubtask(Subtask subtask) {
+        checkOpen();
+        return super.addSubtask(subtask);
     }
 
     @Override
-    public boolean updateEpic(Epic epic) {
-        boolean result = super.updateEpic(epic);
-        save();
-        return result;
+    public synchronized int addEpic(Epic epic) {
+        checkOpen();
+        return super.addEpic(epic);
+    }
+
+    @Override
+    public synchronized int addTaskWithoutOverlap(Task task) {
+        return super.addTaskWithoutOverlap(task);
+    }
+
+    @Override
+    public synchronized int addSubtaskWithoutOverlap(Subtask subtask) {
+        return super.addSubtaskWithoutOverlap(subtask);
+    }
+
+    @Override
+    public synchronized boolean updateTask(Task task) {
+        checkOpen();
+        return super.updateTask(task);
+    }
+
+    @Override
+    public synchronized boolean updateSubtask(Subtask subtask) {
+        checkOpen();
+        return super.updateSubtask(subtask);
+    }
+
+    @Override
+    public synchronized boolean updateEpic(Epic epic) {
+        checkOpen();
+        return super.updateEpic(epic);
+    }
+
+    @Override
+    public synchronized boolean updateTaskWithoutOverlap(Task task) {
+        return super.updateTaskWithoutOverlap(task);
     }
 
     @Override
-    public void removeTask(int id) {
+    public synchronized boolean updateSubtaskWithoutOverlap(Subtask subtask) {
+        return super.updateSubtaskWithoutOverlap(subtask);
+    }
+
+    @Override
+    public synchronized void removeTask(int id) {
+        checkOpen();
         super.removeTask(id);
-        save();
     }
 
     @Override
-    public void removeSubtask(int id) {
+    public synchronized void removeSubtask(int id) {
+        checkOpen();
         super.removeSubtask(id);
-        save();
     }
 
     @Override
-    public void removeEpic(int id) {
+    public synchronized void removeEpic(int id) {
+        checkOpen();
         super.removeEpic(id);
-        save();
     }
 
     @Override
-    public void clearTasks() {
+    public synchronized void clearTasks() {
+        checkOpen();
         super.clearTasks();
-        save();
     }
 
     @Override
-    public void clearSubtasks() {
+    public synchronized void clearSubtasks() {
+        checkOpen();
         super.clearSubtasks();
-        save();
     }
 
     @Override
-    public void clearEpics() {
+    public synchronized void clearEpics() {
+        checkOpen();
         super.clearEpics();
-        save();
     }
 
     @Override
-    public void clearAll() {
+    public synchronized void clearAll() {
+        checkOpen();
         super.clearAll();
-        save();
     }
 }
@@ -0,0 +1,118 @@
+package manager;
+
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Раскладка задач по свободным промежуткам окна расписания.
+ * Промежутки между занятыми задачами вычисляются один раз, а дерево отрезков по их длинам
+ * находит самый ранний промежуток нужной длины за O(log G), где G — количество промежутков.
+ * Задача ставится в начало найденного промежутка, и он укорачивается слева,
+ * поэтому раскладка M задач стоит O(N + M log G) вместо повторного обхода расписания для каждой задачи.
+ */
+public class FreeSlotPlanner {
+    // Длина неограниченного промежутка в конце окна без правой границы
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final LocalDateTime[] gapStarts;
+    private final LocalDateTime[] gapEnds;
+    // Дерево отрезков: в листьях длины промежутков в наносекундах, во внутренних узлах — максимум потомков
+    private final long[] tree;
+    private final int leaves;
+
+    /**
+     * @param from начало окна
+     * @param to конец окна, не включая; null — окно без правой границы
+     * @param busy занятые задачи, пересекающиеся с окном, в порядке startTime и не пересекающиеся между собой
+     */
+    public FreeSlotPlanner(LocalDateTime from, LocalDateTime to, List<Task> busy) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Task task : busy) {
+            if (task.getStartTime().isAfter(cursor)) {
+                starts.add(cursor);
+                ends.add(to != null && to.isBefore(task.getStartTime()) ? to : task.getStartTime());
+            }
+            LocalDateTime end = TimeSlotIndex.endOf(task);
+            if (end.isAfter(cursor)) {
+                cursor = end;
+            }
+        }
+        if (to == null || cursor.isBefore(to)) {
+            starts.add(cursor);
+            ends.add(to);
+        }
+        gapStarts = starts.toArray(new LocalDateTime[0]);
+        gapEnds = ends.toArray(new LocalDateTime[0]);
+
+        int size = 1;
+        while (size < Math.max(gapStarts.length, 1)) {
+            size <<= 1;
+        }
+        leaves = size;
+        tree = new long[size * 2];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < gapStarts.length; i++) {
+            tree[size + i] = length(i);
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[node * 2], tree[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * Занимает самый ранний свободный промежуток, в который помещается длительность.
+     * @param duration длительность задачи
+     * @return время начала занятого места или null, если в окне нет подходящего промежутка
+     */
+    public LocalDateTime place(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность не может быть отрицательной: " + duration);
+        }
+        long needed = nanos(duration);
+        if (tree[1] < needed) {
+            return null;
+        }
+        int node = 1;
+        while (node < leaves) {
+            node = tree[node * 2] >= needed ? node * 2 : node * 2 + 1;
+        }
+        int gap = node - leaves;
+        LocalDateTime start = gapStarts[gap];
+        gapStarts[gap] = start.plus(duration);
+        tree[node] = length(gap);
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[node * 2], tree[node * 2 + 1]);
+        }
+        return start;
+    }
+
+    /**
+     * Количество свободных промежутков окна.
+     */
+    public int gapCount() {
+        return gapStarts.length;
+    }
+
+    private long length(int gap) {
+        if (gapEnds[gap] == null) {
+            return UNBOUNDED;
+        }
+        return nanos(Duration.between(gapStarts[gap], gapEnds[gap]));
+    }
+
+    private static long nanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            // Промежутки длиннее 292 лет считаются неограниченными
+            return UNBOUNDED;
+        }
+    }
+}
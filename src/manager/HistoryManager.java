@@ -12,5 +12,7 @@ public interface HistoryManager {
 
     List<Task> getHistory(); // Получить историю задач
 
+    List<Task> getHistory(int limit); // Получить последние limit задач истории в порядке просмотра
+
     void clear();
 }
\ No newline at end of file
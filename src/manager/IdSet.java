@@ -0,0 +1,124 @@
+package manager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Множество неотрицательных id в виде разреженного битового массива.
+ * Биты хранятся блоками по 4096; блок создаётся при первом id из своего диапазона,
+ * а отдельная карта занятых блоков позволяет перескакивать пустые диапазоны.
+ * Даёт обход id по возрастанию с любого места, поэтому страница из k id читается за O(k)
+ * плюс пропуск пустых слов, независимо от общего количества id.
+ */
+public class IdSet {
+    private static final int BLOCK_SHIFT = 12;
+    private static final int WORDS_PER_BLOCK = (1 << BLOCK_SHIFT) / Long.SIZE;
+
+    private long[][] blocks = new long[0][];
+    private int[] blockCounts = new int[0];
+    private final BitSet occupiedBlocks = new BitSet();
+    private int size;
+
+    /**
+     * @return true, если id не было в множестве
+     */
+    public boolean add(int id) {
+        checkId(id);
+        int block = id >>> BLOCK_SHIFT;
+        if (block >= blocks.length) {
+            int length = Math.max(block + 1, blocks.length * 2);
+            blocks = Arrays.copyOf(blocks, length);
+            blockCounts = Arrays.copyOf(blockCounts, length);
+        }
+        if (blocks[block] == null) {
+            blocks[block] = new long[WORDS_PER_BLOCK];
+        }
+        int word = (id >>> 6) & (WORDS_PER_BLOCK - 1);
+        long bit = 1L << id;
+        if ((blocks[block][word] & bit) != 0) {
+            return false;
+        }
+        blocks[block][word] |= bit;
+        if (blockCounts[block]++ == 0) {
+            occupiedBlocks.set(block);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true, если id был в множестве
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        int block = id >>> BLOCK_SHIFT;
+        blocks[block][(id >>> 6) & (WORDS_PER_BLOCK - 1)] &= ~(1L << id);
+        if (--blockCounts[block] == 0) {
+            occupiedBlocks.clear(block);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int block = id >>> BLOCK_SHIFT;
+        if (block >= blocks.length || blocks[block] == null) {
+            return false;
+        }
+        return (blocks[block][(id >>> 6) & (WORDS_PER_BLOCK - 1)] & (1L << id)) != 0;
+    }
+
+    /**
+     * Наименьший id множества, не меньший from, или -1, если такого нет.
+     */
+    public int next(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int block = from >>> BLOCK_SHIFT;
+        while (block < blocks.length) {
+            if (blockCounts[block] > 0) {
+                long[] words = blocks[block];
+                int word = (from >>> 6) & (WORDS_PER_BLOCK - 1);
+                long bits = words[word] & (-1L << from);
+                while (true) {
+                    if (bits != 0) {
+                        return (block << BLOCK_SHIFT) + word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    }
+                    if (++word == WORDS_PER_BLOCK) {
+                        break;
+                    }
+                    bits = words[word];
+                }
+            }
+            block = occupiedBlocks.nextSetBit(block + 1);
+            if (block < 0) {
+                return -1;
+            }
+            from = block << BLOCK_SHIFT;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        blocks = new long[0][];
+        blockCounts = new int[0];
+        occupiedBlocks.clear();
+        size = 0;
+    }
+
+    private static void checkId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id не может быть отрицательным: " + id);
+        }
+    }
+}
@@ -2,13 +2,25 @@ package manager;
 
 import tasks.Task;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * История просмотров: связный список в порядке просмотра плюс индекс id -> узел для удаления за O(1).
+ * Может быть ограничена по размеру (самые давние просмотры вытесняются) и по времени жизни записи.
+ * Устаревшие записи всегда находятся в начале списка, поэтому удаляются лениво при обращении к истории.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
-    private final Map<Integer, Node> historyMap = new HashMap<>();
+    // Оценка памяти на одну запись без самой задачи: Node и две ячейки индекса
+    static final int ESTIMATED_BYTES_PER_ENTRY = 56;
+
+    private final IntObjectMap<Node> historyMap = new IntObjectHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
     private Node head;
     private Node tail;
 
@@ -16,12 +28,45 @@ public class InMemoryHistoryManager implements HistoryManager {
         Task task;
         Node prev;
         Node next;
+        long viewedAt;
 
-        Node(Task task) {
+        Node(Task task, long viewedAt) {
             this.task = task;
+            this.viewedAt = viewedAt;
         }
     }
 
+    /**
+     * Неограниченная история.
+     */
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * История не длиннее maxSize записей: при переполнении вытесняется самый давний просмотр.
+     */
+    public InMemoryHistoryManager(int maxSize) {
+        this(maxSize, null, Clock.systemUTC());
+    }
+
+    /**
+     * @param maxSize максимальное количество записей
+     * @param ttl время жизни записи с момента последнего просмотра; null — записи не устаревают
+     * @param clock источник времени для проверки устаревания
+     */
+    public InMemoryHistoryManager(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("Время жизни записи должно быть положительным");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl == null ? 0 : ttl.toMillis();
+        this.clock = clock;
+    }
+
     @Override
     public void add(Task task) {
         if (task == null) {
@@ -29,6 +74,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         remove(task.getId());
         linkLast(task);
+        evictExpired();
+        if (historyMap.size() > maxSize) {
+            historyMap.remove(head.task.getId());
+            removeNode(head);
+        }
     }
 
     @Override
@@ -43,7 +93,8 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public List<Task> getHistory() {
-        List<Task> history = new ArrayList<>();
+        evictExpired();
+        List<Task> history = new ArrayList<>(historyMap.size());
         Node current = head;
         while (current != null) {
             history.add(current.task);
@@ -52,9 +103,54 @@ public class InMemoryHistoryManager implements HistoryManager {
         return history;
     }
 
+    /**
+     * Последние limit просмотров в порядке просмотра. Обходит только их, а не всю историю.
+     */
+    @Override
+    public List<Task> getHistory(int limit) {
+        evictExpired();
+        int count = Math.min(Math.max(limit, 0), historyMap.size());
+        Task[] recent = new Task[count];
+        Node current = tail;
+        for (int i = count - 1; i >= 0; i--) {
+            recent[i] = current.task;
+            current = current.prev;
+        }
+        return new ArrayList<>(Arrays.asList(recent));
+    }
+
+    /**
+     * Количество записей в истории.
+     */
+    public int size() {
+        evictExpired();
+        return historyMap.size();
+    }
+
+    /**
+     * Приблизительный объём памяти, занятый самой историей, без учёта объектов задач.
+     */
+    public long estimatedMemoryBytes() {
+        return (long) historyMap.size() * ESTIMATED_BYTES_PER_ENTRY;
+    }
+
+    /**
+     * Удаляет устаревшие записи. Время просмотра растёт от начала списка к концу,
+     * поэтому достаточно снимать записи с головы, пока они устаревшие.
+     */
+    private void evictExpired() {
+        if (ttlMillis == 0) {
+            return;
+        }
+        long expiredBefore = clock.millis() - ttlMillis;
+        while (head != null && head.viewedAt <= expiredBefore) {
+            historyMap.remove(head.task.getId());
+            removeNode(head);
+        }
+    }
 
     private void linkLast(Task task) {
-        Node newNode = new Node(task);
+        Node newNode = new Node(task, ttlMillis == 0 ? 0 : clock.millis());
         if (tail == null) {
             head = newNode;
             tail = newNode;
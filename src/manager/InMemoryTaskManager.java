@@ -3,19 +3,76 @@ package manager;
 import tasks.*;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HistoryManager historyManager = new InMemoryHistoryManager();
-    protected final Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
-    );
+    protected final IntObjectMap<Task> tasks;
+    protected final IntObjectMap<Epic> epics;
+    protected final IntObjectMap<Subtask> subtasks;
+    protected final HistoryManager historyManager;
+    // Истории просмотров по сессиям пользователей, независимые от общей истории
+    protected final SessionHistoryManager sessionHistory = new SessionHistoryManager();
+    protected final TimeSlotIndex prioritizedTasks = new TimeSlotIndex();
+    // Индексы по статусу, типу и дню начала для findTasks
+    protected final TaskQueryIndex queryIndex = new TaskQueryIndex();
+    // Полнотекстовый индекс по названию и описанию для search
+    protected final TextSearchIndex textIndex = new TextSearchIndex();
+    // Полнотекстовый индекс отложен до первого поиска, см. InMemoryTaskManager(boolean)
+    private boolean textIndexDeferred;
     protected int nextId = 1;
+    // Глубина вложенности runInBatch; пока она больше нуля, пересчёт эпиков откладывается
+    protected int batchDepth;
+    private final Set<Epic> pendingEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Подписчики на изменения и события текущего, ещё не завершённого изменения своего потока
+    protected final TaskEventBus eventBus = new TaskEventBus();
+    private final ThreadLocal<PendingEvents> pendingEvents = ThreadLocal.withInitial(PendingEvents::new);
+
+    /**
+     * События изменения, которые публикуются одним набором, когда изменение завершится.
+     */
+    private static final class PendingEvents {
+        final List<TaskEvent> events = new ArrayList<>();
+        // Глубина вложенных составных изменений (пакет, clearAll)
+        int depth;
+    }
+
+    public InMemoryTaskManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    /**
+     * Менеджер с заданной историей просмотров, например ограниченной по размеру.
+     */
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(new IntObjectHashMap<>(), new IntObjectHashMap<>(), new IntObjectHashMap<>(), historyManager);
+    }
+
+    /**
+     * Конструктор для наследников, которые не ведут полнотекстовый индекс до первого поиска:
+     * он строится целиком при первом вызове search. Нужно, когда чтение описаний дорого, —
+     * например, если они остаются на диске до первого обращения.
+     * Подкласс с отложенным индексом должен сам синхронизировать search с изменениями.
+     */
+    protected InMemoryTaskManager(boolean deferTextIndex) {
+        this();
+        this.textIndexDeferred = deferTextIndex;
+    }
+
+    /**
+     * Конструктор для наследников, которым нужны другие реализации хранилищ и истории
+     * (например, потокобезопасные).
+     */
+    protected InMemoryTaskManager(IntObjectMap<Task> tasks, IntObjectMap<Epic> epics,
+                                  IntObjectMap<Subtask> subtasks, HistoryManager historyManager) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.historyManager = historyManager;
+    }
 
     @Override
     public int addTask(Task task) {
@@ -23,6 +80,9 @@ public class InMemoryTaskManager implements TaskManager {
         task.setId(id);
         tasks.put(id, task);
         addToPrioritized(task);
+        indexTask(task);
+        recordEvent(TaskEvent.created(task));
+        commitEvents();
         return id;
     }
 
@@ -31,13 +91,15 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         subtask.setId(id);
         subtasks.put(id, subtask);
+        recordEvent(TaskEvent.created(subtask));
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
-            epic.getSubtasks().add(subtask);
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+            epic.addSubtask(subtask);
+            refreshEpic(epic);
         }
         addToPrioritized(subtask);
+        indexTask(subtask);
+        commitEvents();
         return id;
     }
 
@@ -46,36 +108,66 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         epic.setId(id);
         epics.put(id, epic);
+        indexTask(epic);
+        recordEvent(TaskEvent.created(epic));
+        commitEvents();
         return id;
     }
 
+    @Override
+    public int addTaskWithoutOverlap(Task task) {
+        checkNoOverlap(task);
+        return addTask(task);
+    }
+
+    @Override
+    public int addSubtaskWithoutOverlap(Subtask subtask) {
+        checkNoOverlap(subtask);
+        return addSubtask(subtask);
+    }
+
     @Override
     public Task getTask(int id) {
+        return getTask(id, null);
+    }
+
+    @Override
+    public Task getTask(int id, String sessionId) {
         Task task = tasks.get(id);
         if (task == null) {
             throw new TaskNotFoundException("Task with id " + id + " not found");
         }
-        addToHistory(task);
+        addToHistory(task, sessionId);
         return task;
     }
 
     @Override
     public Subtask getSubtask(int id) {
+        return getSubtask(id, null);
+    }
+
+    @Override
+    public Subtask getSubtask(int id, String sessionId) {
         Subtask subtask = subtasks.get(id);
         if (subtask == null) {
             throw new TaskNotFoundException("Subtask with id " + id + " not found");
         }
-        addToHistory(subtask);
+        addToHistory(subtask, sessionId);
         return subtask;
     }
 
     @Override
     public Epic getEpic(int id) {
+        return getEpic(id, null);
+    }
+
+    @Override
+    public Epic getEpic(int id, String sessionId) {
         Epic epic = epics.get(id);
         if (epic == null) {
             throw new TaskNotFoundException("Epic with id " + id + " not found");
         }
-        addToHistory(epic);
+        addToHistory(epic, sessionId);
         return epic;
     }
 
@@ -100,67 +192,98 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return Collections.emptyList();
         }
-        return new ArrayList<>(epic.getSubtasks());
+        return epic.getSubtasks();
     }
 
     @Override
     public boolean updateTask(Task task) {
         int id = task.getId();
-        if (!tasks.containsKey(id)) {
+        // Проверка и чтение одним шагом: задачу могут удалить между ними
+        Task oldTask = tasks.get(id);
+        if (oldTask == null) {
             throw new TaskNotFoundException("Task with id " + id + " not found");
         }
-        Task oldTask = tasks.get(id);
+        Status oldStatus = statusBeforeChange(id);
         removeFromPrioritized(oldTask);
         tasks.put(id, task);
         addToPrioritized(task);
+        indexTask(task);
+        recordEvent(TaskEvent.updated(task, oldStatus));
+        commitEvents();
         return true;
     }
 
     @Override
     public boolean updateSubtask(Subtask subtask) {
         int id = subtask.getId();
-        if (!subtasks.containsKey(id)) {
+        Subtask oldSubtask = subtasks.get(id);
+        if (oldSubtask == null) {
             throw new TaskNotFoundException("Subtask with id " + id + " not found");
         }
-        Subtask oldSubtask = subtasks.get(id);
+        Status oldStatus = statusBeforeChange(id);
         Epic epic = epics.get(oldSubtask.getEpicId());
-        if (epic != null) {
-            epic.getSubtasks().remove(oldSubtask);
-        }
         subtasks.put(id, subtask);
+        recordEvent(TaskEvent.updated(subtask, oldStatus));
         if (epic != null) {
-            epic.getSubtasks().add(subtask);
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+            // Подзадача с тем же id заменяется, вклад старой версии вычитается из агрегатов
+            epic.addSubtask(subtask);
+            refreshEpic(epic);
         }
         removeFromPrioritized(oldSubtask);
         addToPrioritized(subtask);
+        indexTask(subtask);
+        commitEvents();
         return true;
     }
 
     @Override
     public boolean updateEpic(Epic epic) {
         int id = epic.getId();
-        if (!epics.containsKey(id)) {
+        Epic oldEpic = epics.get(id);
+        if (oldEpic == null) {
             throw new TaskNotFoundException("Epic with id " + id + " not found");
         }
-        Epic oldEpic = epics.get(id);
-        epic.getSubtasks().clear();
-        epic.getSubtasks().addAll(oldEpic.getSubtasks());
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
+        Status oldStatus = statusBeforeChange(id);
+        if (oldEpic != epic) {
+            epic.clearSubtasks();
+            for (Subtask subtask : oldEpic.getSubtasks()) {
+                epic.addSubtask(subtask);
+            }
+        }
+        // Подзадачи могли измениться в обход менеджера, поэтому агрегаты пересчитываются полностью
+        epic.recalculate();
+        // Событие об эпике публикуется ниже одно, с исходным статусом
+        refreshEpic(epic, false);
         epics.put(id, epic);
+        indexTask(epic);
+        recordEvent(TaskEvent.updated(epic, oldStatus));
+        commitEvents();
         return true;
     }
 
+    @Override
+    public boolean updateTaskWithoutOverlap(Task task) {
+        checkNoOverlap(task);
+        return updateTask(task);
+    }
+
+    @Override
+    public boolean updateSubtaskWithoutOverlap(Subtask subtask) {
+        checkNoOverlap(subtask);
+        return updateSubtask(subtask);
+    }
+
     @Override
     public void removeTask(int id) {
         Task removed = tasks.remove(id);
         if (removed == null) {
             throw new TaskNotFoundException("Task with id " + id + " not found");
         }
+        recordEvent(TaskEvent.removed(removed, statusBeforeChange(id)));
         removeFromPrioritized(removed);
-        historyManager.remove(id);
+        unindexTask(id);
+        forgetViewed(id);
+        commitEvents();
     }
 
     @Override
@@ -169,14 +292,16 @@ public class InMemoryTaskManager implements TaskManager {
         if (removed == null) {
             throw new TaskNotFoundException("Subtask with id " + id + " not found");
         }
+        recordEvent(TaskEvent.removed(removed, statusBeforeChange(id)));
         Epic epic = epics.get(removed.getEpicId());
         if (epic != null) {
-            epic.getSubtasks().remove(removed);
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+            epic.removeSubtask(removed);
+            refreshEpic(epic);
         }
         removeFromPrioritized(removed);
-        historyManager.remove(id);
+        unindexTask(id);
+        forgetViewed(id);
+        commitEvents();
     }
 
     @Override
@@ -186,35 +311,44 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TaskNotFoundException("Epic with id " + id + " not found");
         }
         for (Subtask subtask : removed.getSubtasks()) {
+            recordEvent(TaskEvent.removed(subtask, statusBeforeChange(subtask.getId())));
             subtasks.remove(subtask.getId());
             removeFromPrioritized(subtask);
-            historyManager.remove(subtask.getId());
+            unindexTask(subtask.getId());
+            forgetViewed(subtask.getId());
         }
-        historyManager.remove(id);
+        recordEvent(TaskEvent.removed(removed, statusBeforeChange(id)));
+        unindexTask(id);
+        forgetViewed(id);
+        commitEvents();
     }
 
     @Override
     public void clearTasks() {
         for (Task task : tasks.values()) {
             removeFromPrioritized(task);
-            historyManager.remove(task.getId());
+            unindexTask(task.getId());
+            forgetViewed(task.getId());
         }
         tasks.clear();
+        recordEvent(TaskEvent.cleared(TaskType.TASK));
+        commitEvents();
     }
 
     @Override
     public void clearSubtasks() {
+        recordEvent(TaskEvent.cleared(TaskType.SUBTASK));
+        for (Epic epic : epics.values()) {
+            epic.clearSubtasks();
+            refreshEpic(epic);
+        }
         for (Subtask subtask : subtasks.values()) {
-            Epic epic = epics.get(subtask.getEpicId());
-            if (epic != null) {
-                epic.getSubtasks().remove(subtask);
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
-            }
             removeFromPrioritized(subtask);
-            historyManager.remove(subtask.getId());
+            unindexTask(subtask.getId());
+            forgetViewed(subtask.getId());
         }
         subtasks.clear();
+        commitEvents();
     }
 
     @Override
@@ -223,20 +357,32 @@ public class InMemoryTaskManager implements TaskManager {
             for (Subtask subtask : epic.getSubtasks()) {
                 subtasks.remove(subtask.getId());
                 removeFromPrioritized(subtask);
-                historyManager.remove(subtask.getId());
+                unindexTask(subtask.getId());
+                forgetViewed(subtask.getId());
             }
         }
         for (Epic epic : epics.values()) {
-            historyManager.remove(epic.getId());
+            unindexTask(epic.getId());
+            forgetViewed(epic.getId());
         }
         epics.clear();
+        recordEvent(TaskEvent.cleared(TaskType.EPIC));
+        commitEvents();
     }
 
     @Override
     public void clearAll() {
-        clearTasks();
-        clearSubtasks();
-        clearEpics();
+        // Три очистки публикуются одним изменением
+        PendingEvents pending = pendingEvents.get();
+        pending.depth++;
+        try {
+            clearTasks();
+            clearSubtasks();
+            clearEpics();
+        } finally {
+            pending.depth--;
+        }
+        commitEvents();
     }
 
     @Override
@@ -244,83 +390,509 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    @Override
+    public List<Task> getHistory(String sessionId) {
+        if (sessionId == null) {
+            return historyManager.getHistory();
+        }
+        return sessionHistory.getHistory(sessionId);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedTasks.getTasks();
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        return prioritizedTasks.findOverlapping(task);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        return prioritizedTasks.page(after, limit);
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return prioritizedTasks.between(from, to);
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime after, int limit) {
+        return prioritizedTasks.startingFrom(after, limit);
+    }
+
+    @Override
+    public List<Task> getTasksActiveAt(LocalDateTime time) {
+        return prioritizedTasks.activeAt(time);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        return prioritizedTasks.findFreeSlot(duration, from != null ? from : LocalDateTime.now(), to);
+    }
+
+    @Override
+    public List<Task> scheduleTasks(List<? extends Task> batch, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime windowStart = from != null ? from : LocalDateTime.now();
+        List<Task> placed = new ArrayList<>();
+        runInBatch(manager -> {
+            // Сначала освобождаются все слоты пакета, иначе новое место задачи могло бы
+            // пересечься со старым местом задачи, до которой очередь ещё не дошла
+            // Все задачи проверяются до изменения времени: откат пакета не возвращает поля объектов
+            for (Task task : batch) {
+                removeFromPrioritized(storedForScheduling(task));
+            }
+            // Места всех задач вычисляются до первого изменения: ошибка планирования не оставит задачам новое время
+            FreeSlotPlanner planner = prioritizedTasks.planner(windowStart, to);
+            LocalDateTime[] starts = new LocalDateTime[batch.size()];
+            int index = 0;
+            for (Task task : batch) {
+                starts[index++] = planner.place(task.getDuration());
+            }
+            index = 0;
+            for (Task task : batch) {
+                LocalDateTime start = starts[index++];
+                task.setStartTime(start);
+                if (start == null) {
+                    task.setEndTime(null);
+                } else {
+                    placed.add(task);
+                }
+                if (task instanceof Subtask subtask) {
+                    manager.updateSubtask(subtask);
+                } else {
+                    manager.updateTask(task);
+                }
+            }
+        });
+        return placed;
+    }
+
+    @Override
+    public TaskEventBus.Subscription subscribe(TaskEventListener listener) {
+        return subscribe(listener, TaskEventBus.DEFAULT_CAPACITY, TaskEventBus.Overflow.DROP);
+    }
+
+    @Override
+    public TaskEventBus.Subscription subscribe(TaskEventListener listener, int capacity,
+                                               TaskEventBus.Overflow overflow) {
+        return eventBus.subscribe(listener, capacity, overflow);
+    }
+
+    @Override
+    public List<Task> findTasks(TaskType type, Status status, LocalDate day) {
+        int[] ids = queryIndex.find(type, status, day);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = lookup(queryIndex.typeOf(id), id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (textIndexDeferred) {
+            textIndexDeferred = false;
+            rebuildTextIndex();
+        }
+        List<TextSearchIndex.Hit> hits = textIndex.search(query, limit);
+        List<Task> result = new ArrayList<>(hits.size());
+        for (TextSearchIndex.Hit hit : hits) {
+            Task task = lookup(hit.getType(), hit.getId());
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Задача из хранилища её типа или null.
+     */
+    private Task lookup(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case SUBTASK -> subtasks.get(id);
+            case EPIC -> epics.get(id);
+        };
+    }
+
+    @Override
+    public int count(TaskType type) {
+        return switch (type) {
+            case TASK -> tasks.size();
+            case SUBTASK -> subtasks.size();
+            case EPIC -> epics.size();
+        };
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return page(subtasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics, afterId, limit);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return tasks.values().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtasks.values().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epics.values().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamEpicSubtasks(int epicId) {
+        Epic epic = epics.get(epicId);
+        return epic == null ? Stream.empty() : epic.subtaskStream();
+    }
+
+    /**
+     * Страница хранилища по возрастанию id: обходятся только id страницы, а не всё хранилище.
+     */
+    private static <T extends Task> List<T> page(IntObjectMap<T> store, int afterId, int limit) {
+        List<T> page = new ArrayList<>(Math.min(Math.max(limit, 0), store.size()));
+        int id = afterId;
+        while (page.size() < limit && (id = store.nextKey(id)) >= 0) {
+            T task = store.get(id);
+            if (task != null) {
+                page.add(task);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void runInBatch(Consumer<TaskManager> work) {
+        if (batchDepth > 0) {
+            // Вложенный пакет становится частью внешнего
+            work.accept(this);
+            return;
+        }
+        BatchSnapshot snapshot = new BatchSnapshot();
+        PendingEvents pending = pendingEvents.get();
+        batchDepth++;
+        pending.depth++;
+        try {
+            work.accept(this);
+        } catch (RuntimeException | Error e) {
+            batchDepth--;
+            pending.depth--;
+            pending.events.clear();
+            pendingEpics.clear();
+            snapshot.restore();
+            throw e;
+        }
+        batchDepth--;
+        for (Epic epic : pendingEpics) {
+            refreshEpic(epic);
+        }
+        pendingEpics.clear();
+        pending.depth--;
+        // Весь пакет публикуется одним изменением
+        commitEvents();
+    }
+
+    /**
+     * Состояние менеджера на момент начала пакета, нужное для отката.
+     * Хранилища копируются поверхностно: изменения заменяют объекты в них,
+     * а связи эпиков и индексы после отката строятся заново.
+     */
+    private class BatchSnapshot {
+        private final IntObjectMap<Task> savedTasks = new IntObjectHashMap<>(tasks);
+        private final IntObjectMap<Epic> savedEpics = new IntObjectHashMap<>(epics);
+        private final IntObjectMap<Subtask> savedSubtasks = new IntObjectHashMap<>(subtasks);
+        private final List<Task> savedHistory = historyManager.getHistory();
+        private final int savedNextId = nextId;
+
+        void restore() {
+            tasks.clear();
+            tasks.putAll(savedTasks);
+            epics.clear();
+            epics.putAll(savedEpics);
+            subtasks.clear();
+            subtasks.putAll(savedSubtasks);
+            nextId = savedNextId;
+            historyManager.clear();
+            for (Task task : savedHistory) {
+                historyManager.add(task);
+            }
+            // Истории сессий не копируются: из них достаточно убрать задачи, созданные в откатанном пакете
+            sessionHistory.removeIf(task -> !isStored(task));
+            rebuildIndexes();
+        }
+    }
+
+    /**
+     * Заново строит всё, что выводится из хранилищ: связи подзадач с эпиками,
+     * статусы и время эпиков, индекс приоритетов.
+     */
+    protected void rebuildIndexes() {
+        for (Epic epic : epics.values()) {
+            epic.clearSubtasks();
+        }
+        for (Subtask subtask : subtasks.values()) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtask(subtask);
+            }
+        }
+        for (Epic epic : epics.values()) {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        }
+        prioritizedTasks.clear();
+        for (Task task : tasks.values()) {
+            addToPrioritized(task);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            addToPrioritized(subtask);
+        }
+        rebuildQueryIndex();
+    }
+
+    /**
+     * Сохранённая версия задачи пакета расстановки.
+     */
+    private Task storedForScheduling(Task task) {
+        Task stored = switch (task.getType()) {
+            case TASK -> tasks.get(task.getId());
+            case SUBTASK -> subtasks.get(task.getId());
+            case EPIC -> throw new IllegalArgumentException("Время эпика вычисляется по подзадачам: " + task.getId());
+        };
+        if (stored == null) {
+            String kind = task.getType() == TaskType.TASK ? "Task" : "Subtask";
+            throw new TaskNotFoundException(kind + " with id " + task.getId() + " not found");
+        }
+        return stored;
+    }
+
+    /**
+     * Заново заполняет индексы запросов по всем хранилищам.
+     */
+    protected void rebuildQueryIndex() {
+        queryIndex.clear();
+        textIndex.clear();
+        for (Task task : tasks.values()) {
+            indexTask(task);
+        }
+        for (Epic epic : epics.values()) {
+            indexTask(epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            indexTask(subtask);
+        }
+    }
+
+    /**
+     * Заново заполняет полнотекстовый индекс.
+     */
+    private void rebuildTextIndex() {
+        textIndex.clear();
+        for (Task task : tasks.values()) {
+            textIndex.put(task);
+        }
+        for (Epic epic : epics.values()) {
+            textIndex.put(epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            textIndex.put(subtask);
+        }
+    }
+
+    /**
+     * Добавляет задачу в индексы запросов и полнотекстовый индекс или обновляет её там.
+     */
+    protected void indexTask(Task task) {
+        queryIndex.put(task);
+        if (!textIndexDeferred) {
+            textIndex.put(task);
+        }
+    }
+
+    /**
+     * Обновляет только индекс запросов (тип, статус, день) — для изменений, не затрагивающих текст задачи.
+     */
+    protected void indexQuery(Task task) {
+        queryIndex.put(task);
+    }
+
+    protected void unindexTask(int id) {
+        queryIndex.remove(id);
+        textIndex.remove(id);
+    }
+
+    /**
+     * Статус задачи на момент её последней индексации; null, если задачи нет в индексе.
+     */
+    protected Status indexedStatus(int id) {
+        return queryIndex.statusOf(id);
+    }
+
+    /**
+     * Статус задачи до текущего изменения для события; без подписчиков не вычисляется.
+     * Берётся из индекса, а не из объекта: объект могли изменить снаружи до вызова менеджера.
+     */
+    private Status statusBeforeChange(int id) {
+        return eventBus.hasSubscribers() ? indexedStatus(id) : null;
+    }
+
+    /**
+     * Запоминает событие текущего изменения. Без подписчиков ничего не делает.
+     */
+    private void recordEvent(TaskEvent event) {
+        if (eventBus.hasSubscribers()) {
+            pendingEvents.get().events.add(event);
+        }
+    }
+
+    /**
+     * Публикует накопленные события, если завершилось самое внешнее изменение.
+     */
+    private void commitEvents() {
+        if (!eventBus.hasSubscribers()) {
+            return;
+        }
+        PendingEvents pending = pendingEvents.get();
+        if (pending.depth > 0 || pending.events.isEmpty()) {
+            return;
+        }
+        List<TaskEvent> events = List.copyOf(pending.events);
+        pending.events.clear();
+        eventBus.publish(events);
     }
 
     protected int generateId() {
         return nextId++;
     }
 
-    protected void addToHistory(Task task) {
-        historyManager.add(task);
+    protected void addToHistory(Task task, String sessionId) {
+        historyFor(sessionId).add(task);
     }
 
-    protected void updateEpicStatus(Epic epic) {
-        boolean allDone = true;
-        boolean anyInProgress = false;
-        for (Subtask subtask : epic.getSubtasks()) {
-            if (subtask.getStatus() != Status.DONE) {
-                allDone = false;
-            }
-            if (subtask.getStatus() == Status.IN_PROGRESS) {
-                anyInProgress = true;
+    /**
+     * История сессии или общая история, если сессия не указана.
+     */
+    protected HistoryManager historyFor(String sessionId) {
+        return sessionId == null ? historyManager : sessionHistory.forSession(sessionId);
+    }
+
+    /**
+     * Убирает удалённую задачу из общей истории и из историй всех сессий.
+     */
+    protected void forgetViewed(int id) {
+        historyManager.remove(id);
+        sessionHistory.remove(id);
+    }
+
+    /**
+     * Лежит ли в хранилище именно этот объект задачи.
+     */
+    protected boolean isStored(Task task) {
+        if (task instanceof Epic) {
+            return epics.get(task.getId()) == task;
+        } else if (task instanceof Subtask) {
+            return subtasks.get(task.getId()) == task;
+        }
+        return tasks.get(task.getId()) == task;
+    }
+
+    /**
+     * Пересчитывает статус и время эпика; внутри пакета откладывает пересчёт до его завершения.
+     * Если статус сохранённого эпика изменился, публикует событие его изменения.
+     */
+    protected void refreshEpic(Epic epic) {
+        refreshEpic(epic, true);
+    }
+
+    private void refreshEpic(Epic epic, boolean notify) {
+        if (batchDepth > 0) {
+            pendingEpics.add(epic);
+            return;
+        }
+        updateEpicStatus(epic);
+        updateEpicTime(epic);
+        // Статус и время эпика могли измениться; эпик, ещё не положенный в хранилище, индексирует вызывающий.
+        // Текст эпика от подзадач не зависит, поэтому полнотекстовый индекс здесь не трогается
+        if (isStored(epic)) {
+            Status oldStatus = notify ? statusBeforeChange(epic.getId()) : null;
+            indexQuery(epic);
+            if (notify && eventBus.hasSubscribers() && oldStatus != epic.getStatus()) {
+                recordEvent(TaskEvent.updated(epic, oldStatus));
             }
         }
-        if (allDone) {
+    }
+
+    /**
+     * Пересчитывает статус эпика по счётчикам статусов подзадач за O(1).
+     */
+    protected void updateEpicStatus(Epic epic) {
+        int total = epic.getSubtaskCount();
+        if (epic.getSubtaskCount(Status.DONE) == total) {
             epic.setStatus(Status.DONE);
-        } else if (anyInProgress) {
+        } else if (epic.getSubtaskCount(Status.IN_PROGRESS) > 0) {
             epic.setStatus(Status.IN_PROGRESS);
         } else {
             epic.setStatus(Status.NEW);
         }
     }
 
+    /**
+     * Пересчитывает время эпика по агрегатам подзадач за O(1).
+     */
     protected void updateEpicTime(Epic epic) {
-        if (epic.getSubtasks().isEmpty()) {
+        if (epic.getSubtaskCount() == 0) {
             epic.setStartTime(null);
             epic.setDuration(Duration.ZERO);
             epic.setEndTime(null);
             return;
         }
 
-        Optional<LocalDateTime> earliestStart = epic.getSubtasks().stream()
-                .map(Subtask::getStartTime)
-                .min(Comparator.naturalOrder());
-
-        Duration totalDuration = epic.getSubtasks().stream()
-                .map(Subtask::getDuration)
-                .reduce(Duration.ZERO, Duration::plus);
+        LocalDateTime earliestStart = epic.getEarliestSubtaskStart();
+        Duration totalDuration = epic.getSubtasksDuration();
 
-        epic.setStartTime(earliestStart.get());
+        epic.setStartTime(earliestStart);
         epic.setDuration(totalDuration);
-        epic.setEndTime(earliestStart.get().plus(totalDuration));
+        epic.setEndTime(earliestStart != null ? earliestStart.plus(totalDuration) : null);
     }
 
     /**
-     * Проверка пересечения по времени двух задач.
-     * @param task1 первая задача
-     * @param task2 вторая задача
-     * @return true, если задачи пересекаются по времени, иначе false
+     * Выбрасывает TaskOverlapException, если задача пересекается с расписанием (кроме самой себя).
      */
-     boolean intersects(Task task1, Task task2) {
-        if (task1 == null || task2 == null || task1.getStartTime() == null || task2.getStartTime() == null) {
-            return false;
+    private void checkNoOverlap(Task task) {
+        if (task.getStartTime() != null && prioritizedTasks.hasOverlap(task)) {
+            throw new TaskOverlapException("Задача пересекается по времени с другими");
         }
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
-        return end1.isAfter(start2) && end2.isAfter(start1);
     }
 
     protected void addToPrioritized(Task task) {
         if (task.getStartTime() != null) {
-            List<Task> tmpTaskList = prioritizedTasks.stream()
-                    .filter(fTask -> intersects(task, fTask))
-                    .collect(Collectors.toList());
-            if (!tmpTaskList.isEmpty())
+            if (prioritizedTasks.hasOverlap(task))
                 System.out.println("Внимание, добавляемая задача пересекается с другими");
             else
                 prioritizedTasks.add(task);
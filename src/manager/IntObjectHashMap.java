@@ -0,0 +1,301 @@
+package manager;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Хеш-таблица int -> объект с открытой адресацией и линейным пробированием.
+ * Ключи хранятся в int[], значения — в Object[], пустая ячейка — null в массиве значений.
+ * На запись уходит две ячейки по 4 байта (заполнение не больше половины) против узла, Integer и ячейки у HashMap.
+ * Удаление сдвигает следующие записи цепочки, поэтому «надгробий» нет и поиск не деградирует.
+ * Сдвиг просматривает не больше максимального смещения записи от её позиции, а не весь кластер:
+ * последовательные id лежат одним сплошным кластером, и без этой границы удаление стоило бы O(N).
+ * Хеш такой же, как у HashMap, так что последовательные id перебираются по возрастанию.
+ * Неотрицательные ключи дополнительно отмечаются в {@link IdSet} для обхода по возрастанию с любого ключа.
+ * Не потокобезопасна.
+ */
+public class IntObjectHashMap<V> implements IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private final IdSet orderedKeys = new IdSet();
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    // Наибольшее смещение записи от её позиции по хешу; после удалений может быть завышено, но не занижено
+    private int maxProbe;
+    private int size;
+    private int modCount;
+
+    public IntObjectHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize количество записей, которое поместится без расширения таблицы
+     */
+    public IntObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public IntObjectHashMap(IntObjectMap<? extends V> source) {
+        this(source.size());
+        copyFrom(source);
+    }
+
+    @Override
+    public V get(int key) {
+        int pos = position(key);
+        return valueAt(pos);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return values[position(key)] != null;
+    }
+
+    @Override
+    public V put(int key, V value) {
+        return insert(key, value);
+    }
+
+    private V insert(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        int pos = position(key);
+        V previous = valueAt(pos);
+        if (previous == null) {
+            if ((size + 1) * 2 > values.length) {
+                resize(values.length * 2);
+                pos = position(key);
+            }
+            keys[pos] = key;
+            maxProbe = Math.max(maxProbe, probeDistance(key, pos));
+            if (key >= 0) {
+                orderedKeys.add(key);
+            }
+            size++;
+            modCount++;
+        }
+        values[pos] = value;
+        return previous;
+    }
+
+    @Override
+    public V remove(int key) {
+        int pos = position(key);
+        V previous = valueAt(pos);
+        if (previous != null) {
+            deleteAt(pos);
+            orderedKeys.remove(key);
+            size--;
+            modCount++;
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super V> filter) {
+        // Сначала собираем ключи: удаление сдвигает записи и сбило бы обход таблицы
+        int[] matched = new int[size];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            V value = valueAt(i);
+            if (value != null && filter.test(value)) {
+                matched[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(matched[i]);
+        }
+        return count > 0;
+    }
+
+    @Override
+    public int nextKey(int after) {
+        return after == Integer.MAX_VALUE ? -1 : orderedKeys.next(after + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(values, null);
+        orderedKeys.clear();
+        maxProbe = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(EntryConsumer<? super V> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < values.length; i++) {
+            V value = valueAt(i);
+            if (value != null) {
+                action.accept(keys[i], value);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            V value = valueAt(next);
+            next = advance(next + 1);
+            return value;
+        }
+    }
+
+    /**
+     * Копирует записи источника только через приватные методы, потому что вызывается из конструктора.
+     * Записи другой таблицы читаются напрямую, остальные источники сначала копируются в промежуточную таблицу.
+     */
+    private void copyFrom(IntObjectMap<? extends V> source) {
+        IntObjectHashMap<? extends V> table;
+        if (source instanceof IntObjectHashMap<? extends V> hashMap) {
+            table = hashMap;
+        } else {
+            IntObjectHashMap<V> copy = new IntObjectHashMap<>(source.size());
+            source.forEach(copy::put);
+            table = copy;
+        }
+        for (int i = 0; i < table.values.length; i++) {
+            V value = table.valueAt(i);
+            if (value != null) {
+                insert(table.keys[i], value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int pos) {
+        return (V) values[pos];
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    /**
+     * Позиция ключа в таблице или пустая ячейка, где он должен был бы лежать.
+     */
+    private int position(int key) {
+        int pos = hash(key) & mask;
+        while (values[pos] != null && keys[pos] != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private int probeDistance(int key, int pos) {
+        return (pos - hash(key)) & mask;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая на её место следующие записи цепочки,
+     * если их «родная» позиция не лежит между освободившейся ячейкой и текущей позицией.
+     */
+    private void deleteAt(int pos) {
+        int hole = pos;
+        int current = pos;
+        while (true) {
+            current = (current + 1) & mask;
+            // Запись дальше maxProbe от дыры начинается по хешу после дыры и сдвигаться не может
+            if (values[current] == null || ((current - hole) & mask) > maxProbe) {
+                break;
+            }
+            int home = hash(keys[current]) & mask;
+            boolean stays = hole <= current
+                    ? hole < home && home <= current
+                    : hole < home || home <= current;
+            if (stays) {
+                continue;
+            }
+            keys[hole] = keys[current];
+            values[hole] = values[current];
+            hole = current;
+        }
+        values[hole] = null;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = Math.max(MIN_CAPACITY, expectedSize * 2);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+    }
+
+    private void resize(int tableSize) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(tableSize);
+        maxProbe = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int pos = position(oldKeys[i]);
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+                maxProbe = Math.max(maxProbe, probeDistance(oldKeys[i], pos));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package manager;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Отображение int -> объект без упаковки ключей.
+ * Используется для хранилищ задач вместо Map<Integer, ...>: ключи не превращаются в Integer,
+ * а записи не требуют отдельных узлов. Значения null не допускаются.
+ */
+public interface IntObjectMap<V> {
+
+    /**
+     * Обработчик пары ключ-значение для {@link #forEach}.
+     */
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    V get(int key);
+
+    boolean containsKey(int key);
+
+    /**
+     * @return предыдущее значение или null
+     */
+    V put(int key, V value);
+
+    /**
+     * @return удалённое значение или null
+     */
+    V remove(int key);
+
+    /**
+     * Удаляет все значения, подходящие под условие.
+     * @return true, если что-то было удалено
+     */
+    boolean removeIf(Predicate<? super V> filter);
+
+    /**
+     * Наименьший неотрицательный ключ больше after, или -1, если такого нет.
+     * Позволяет листать отображение по возрастанию ключей страницами (keyset-пагинация).
+     * Отрицательные ключи в этом порядке не участвуют.
+     */
+    int nextKey(int after);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    /**
+     * Значения отображения. Коллекция только для чтения: удалять через неё нельзя.
+     */
+    Collection<V> values();
+
+    void forEach(EntryConsumer<? super V> action);
+
+    default void putAll(IntObjectMap<? extends V> source) {
+        source.forEach(this::put);
+    }
+}
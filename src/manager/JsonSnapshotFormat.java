@@ -0,0 +1,67 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskJsonReader;
+import tasks.TaskJsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Формат снимка в виде JSON-массива задач, по одной задаче на строку.
+ * Пишется и читается потоково через {@link TaskJsonWriter} и {@link TaskJsonReader}, весь файл в памяти не держится.
+ * В отличие от CSV, названия и описания могут содержать запятые и переводы строк.
+ */
+public class JsonSnapshotFormat implements SnapshotFormat {
+
+    @Override
+    public void write(File file, Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks)
+            throws IOException {
+        try (TaskJsonWriter writer = new TaskJsonWriter(
+                new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            for (Task task : tasks) {
+                writer.newLine();
+                writer.write(task);
+            }
+            for (Epic epic : epics) {
+                writer.newLine();
+                writer.write(epic);
+            }
+            for (Subtask subtask : subtasks) {
+                writer.newLine();
+                writer.write(subtask);
+            }
+            writer.newLine();
+            writer.endArray();
+            writer.newLine();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void read(File file, Consumer<Task> consumer) throws IOException {
+        if (Files.size(file.toPath()) == 0) {
+            return;
+        }
+        try (TaskJsonReader reader = new TaskJsonReader(
+                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            reader.readArray(consumer);
+            reader.expectEnd();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Файл не является JSON-снимком задач: " + file.getPath(), e);
+        }
+    }
+}
@@ -5,4 +5,30 @@ public class Managers {
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
+
+    /**
+     * Менеджер с заданной реализацией истории просмотров.
+     */
+    public static TaskManager getDefault(HistoryManager historyManager) {
+        return new InMemoryTaskManager(historyManager);
+    }
+
+    public static HistoryManager getDefaultHistory() {
+        return new InMemoryHistoryManager();
+    }
+
+    /**
+     * История на примитивных массивах: добавление и удаление без выделения памяти.
+     * @param maxSize максимальное количество записей
+     */
+    public static HistoryManager getArrayHistory(int maxSize) {
+        return new ArrayHistoryManager(maxSize);
+    }
+
+    /**
+     * Менеджер для одновременного доступа из нескольких потоков.
+     */
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
 }
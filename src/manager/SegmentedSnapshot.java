@@ -0,0 +1,163 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Снимок, разбитый на сегменты по диапазонам id.
+ * Сегмент k хранит задачи, эпики и подзадачи с id от k·segmentSize до (k+1)·segmentSize − 1
+ * в отдельном файле каталога ({@code 00000k.seg}) в любом {@link SnapshotFormat}.
+ * Изменения помечают сегменты своих id, и {@link #writeDirty} перезаписывает только помеченные,
+ * поэтому стоимость сохранения растёт с количеством изменённых задач, а не с размером доски.
+ * Каждый сегмент пишется атомарно через {@link SnapshotFiles}; изменение, затронувшее несколько сегментов,
+ * пишется посегментно, и сбой посередине оставит часть сегментов в прежнем состоянии.
+ */
+public class SegmentedSnapshot {
+    private static final String SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final SnapshotFormat format;
+    private final int segmentSize;
+    // Номера сегментов, изменённых после последней записи
+    private final IdSet dirty = new IdSet();
+    // Номера сегментов, файлы которых есть на диске
+    private final IdSet present = new IdSet();
+
+    public SegmentedSnapshot(File directory, SnapshotFormat format, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным");
+        }
+        this.directory = directory;
+        this.format = format;
+        this.segmentSize = segmentSize;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Читает все сегменты каталога; недописанные временные файлы удаляются.
+     * Каталог создаётся, если его ещё нет.
+     */
+    public void read(Consumer<Task> consumer) throws IOException {
+        Files.createDirectories(directory.toPath());
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Не удалось прочитать каталог снимка: " + directory.getPath());
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                Files.deleteIfExists(file.toPath());
+            } else if (name.endsWith(SUFFIX)) {
+                int segment;
+                try {
+                    segment = Integer.parseInt(name, 0, name.length() - SUFFIX.length(), 10);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                format.read(file, consumer);
+                present.add(segment);
+            }
+        }
+    }
+
+    /**
+     * Помечает изменённым сегмент, в который попадает id.
+     */
+    public void markChanged(int id) {
+        dirty.add(id / segmentSize);
+    }
+
+    /**
+     * Помечает изменёнными все сегменты, записанные на диск, — после очистки их нужно переписать или удалить.
+     */
+    public void markAllWritten() {
+        for (int segment = present.next(0); segment >= 0; segment = present.next(segment + 1)) {
+            dirty.add(segment);
+        }
+    }
+
+    /**
+     * Помечает изменёнными сегменты всех задач отображения; вместе с {@link #markAllWritten()} даёт полную перезапись.
+     */
+    public void markAll(IntObjectMap<? extends Task> map) {
+        for (int id = map.nextKey(-1); id >= 0; id = map.nextKey(id)) {
+            markChanged(id);
+        }
+    }
+
+    public boolean hasChanges() {
+        return dirty.size() > 0;
+    }
+
+    /**
+     * Перезаписывает изменённые сегменты; сегмент, в котором не осталось задач, удаляется.
+     * Сегмент снимается с пометки только после успешной записи, поэтому после ошибки
+     * недописанные сегменты будут записаны следующим вызовом.
+     */
+    public void writeDirty(IntObjectMap<Task> tasks, IntObjectMap<Epic> epics, IntObjectMap<Subtask> subtasks)
+            throws IOException {
+        for (int segment = dirty.next(0); segment >= 0; segment = dirty.next(segment + 1)) {
+            writeSegment(segment, tasks, epics, subtasks);
+            dirty.remove(segment);
+        }
+    }
+
+    private void writeSegment(int segment, IntObjectMap<Task> tasks, IntObjectMap<Epic> epics,
+                              IntObjectMap<Subtask> subtasks) throws IOException {
+        int from = segment * segmentSize;
+        List<Task> segmentTasks = slice(tasks, from);
+        List<Epic> segmentEpics = slice(epics, from);
+        List<Subtask> segmentSubtasks = slice(subtasks, from);
+        File file = segmentFile(segment);
+        if (format.keepsDescriptionsOnDisk() && present.contains(segment)) {
+            // Прежний файл сегмента сейчас будет заменён: его описания переходят в память, а сам файл закрывается
+            loadDescriptions(segmentTasks);
+            loadDescriptions(segmentEpics);
+            loadDescriptions(segmentSubtasks);
+            format.release(file);
+        }
+        if (segmentTasks.isEmpty() && segmentEpics.isEmpty() && segmentSubtasks.isEmpty()) {
+            Files.deleteIfExists(file.toPath());
+            present.remove(segment);
+            return;
+        }
+        SnapshotFiles.write(file, format, segmentTasks, segmentEpics, segmentSubtasks, 0);
+        present.add(segment);
+    }
+
+    private static void loadDescriptions(List<? extends Task> tasks) {
+        for (Task task : tasks) {
+            if (task.getStoredDescription() != null) {
+                task.setDescription(task.getDescription());
+            }
+        }
+    }
+
+    /**
+     * Значения с ключами из сегмента, начинающегося с from, по возрастанию id.
+     */
+    private <V> List<V> slice(IntObjectMap<V> map, int from) {
+        List<V> result = new ArrayList<>();
+        long to = (long) from + segmentSize;
+        for (int id = map.nextKey(from - 1); id >= 0 && id < to; id = map.nextKey(id)) {
+            result.add(map.get(id));
+        }
+        return result;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("%06d", segment) + SUFFIX);
+    }
+}
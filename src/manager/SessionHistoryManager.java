@@ -0,0 +1,135 @@
+package manager;
+
+import tasks.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Истории просмотров, разделённые по сессиям (пользователям).
+ * У каждой сессии своя ограниченная история со своим монитором, поэтому разные пользователи
+ * не трогают один и тот же список. Разделы создаются при первом просмотре и удаляются,
+ * если к ним не обращались дольше idleTimeout.
+ */
+public class SessionHistoryManager {
+    public static final int DEFAULT_MAX_SIZE = 100;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    private volatile long lastSweep;
+
+    /**
+     * Раздел истории одной сессии с отметкой последнего обращения.
+     */
+    private static final class Partition extends SynchronizedHistoryManager {
+        volatile long lastAccess;
+
+        Partition(int maxSize) {
+            super(new InMemoryHistoryManager(maxSize));
+        }
+    }
+
+    public SessionHistoryManager() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT, Clock.systemUTC());
+    }
+
+    /**
+     * @param maxSize максимальная длина истории одной сессии
+     * @param idleTimeout время без обращений, после которого раздел сессии удаляется
+     * @param clock источник времени
+     */
+    public SessionHistoryManager(int maxSize, Duration idleTimeout, Clock clock) {
+        if (maxSize <= 0 || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Размер истории и время простоя сессии должны быть положительными");
+        }
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+        this.lastSweep = clock.millis();
+    }
+
+    /**
+     * История сессии; создаётся при первом обращении.
+     */
+    public HistoryManager forSession(String sessionId) {
+        Objects.requireNonNull(sessionId, "sessionId");
+        long now = clock.millis();
+        Partition partition = partitions.computeIfAbsent(sessionId, id -> new Partition(maxSize));
+        partition.lastAccess = now;
+        maybeEvictIdle(now);
+        return partition;
+    }
+
+    /**
+     * История сессии в порядке просмотра; для неизвестной сессии — пустой список.
+     */
+    public List<Task> getHistory(String sessionId) {
+        Partition partition = partitions.get(sessionId);
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        partition.lastAccess = clock.millis();
+        return partition.getHistory();
+    }
+
+    /**
+     * Удаляет задачу из историй всех сессий. Вызывается при удалении задачи из менеджера.
+     */
+    public void remove(int id) {
+        for (Partition partition : partitions.values()) {
+            partition.remove(id);
+        }
+    }
+
+    /**
+     * Удаляет из историй всех сессий задачи, подходящие под условие.
+     */
+    public void removeIf(Predicate<Task> filter) {
+        for (Partition partition : partitions.values()) {
+            for (Task task : partition.getHistory()) {
+                if (filter.test(task)) {
+                    partition.remove(task.getId());
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        partitions.clear();
+    }
+
+    /**
+     * Количество сессий, у которых есть история.
+     */
+    public int sessionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Удаляет разделы сессий, к которым не обращались дольше времени простоя.
+     * Просмотр, совпавший с удалением раздела, может потеряться — сессия к этому моменту уже простаивала.
+     */
+    public void evictIdle() {
+        long now = clock.millis();
+        lastSweep = now;
+        long idleBefore = now - idleTimeoutMillis;
+        partitions.values().removeIf(partition -> partition.lastAccess <= idleBefore);
+    }
+
+    /**
+     * Ленивая очистка: не чаще чем раз в четверть времени простоя.
+     */
+    private void maybeEvictIdle(long now) {
+        if (now - lastSweep >= Math.max(idleTimeoutMillis / 4, 1)) {
+            evictIdle();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конвертер снимков FileBackedTaskManager между форматами (CSV, двоичным и JSON).
+ */
+public class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    /**
+     * Читает снимок в одном формате и записывает его в другом.
+     * @param source исходный файл
+     * @param sourceFormat формат исходного файла
+     * @param target файл результата
+     * @param targetFormat формат результата
+     */
+    public static void convert(File source, SnapshotFormat sourceFormat, File target, SnapshotFormat targetFormat) {
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        try {
+            sourceFormat.read(source, task -> {
+                if (task instanceof Epic epic) {
+                    epics.add(epic);
+                } else if (task instanceof Subtask subtask) {
+                    subtasks.add(subtask);
+                } else {
+                    tasks.add(task);
+                }
+            });
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении снимка: " + source.getPath(), e);
+        }
+        try {
+            SnapshotFiles.write(target, targetFormat, tasks, epics, subtasks, 0);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи снимка: " + target.getPath(), e);
+        }
+    }
+
+    /**
+     * Запуск из командной строки: {@code SnapshotConverter <csv|bin|json> <source> <csv|bin|json> <target>}.
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Использование: SnapshotConverter <csv|bin|json> <source> <csv|bin|json> <target>");
+            return;
+        }
+        convert(new File(args[1]), formatOf(args[0]), new File(args[3]), formatOf(args[2]));
+    }
+
+    private static SnapshotFormat formatOf(String name) {
+        return switch (name) {
+            case "csv" -> new CsvSnapshotFormat();
+            case "bin" -> new BinarySnapshotFormat();
+            case "json" -> new JsonSnapshotFormat();
+            default -> throw new IllegalArgumentException("Неизвестный формат снимка: " + name);
+        };
+    }
+}
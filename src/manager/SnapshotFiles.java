@@ -0,0 +1,94 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Атомарная запись файла снимка.
+ * Снимок пишется во временный файл рядом с целевым, сбрасывается на диск и переименовывается поверх целевого.
+ * Сбой посреди записи оставляет прежний снимок целым, а читатели видят либо старый файл, либо новый, но не обрывок.
+ */
+public final class SnapshotFiles {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak.";
+
+    private SnapshotFiles() {
+    }
+
+    /**
+     * Записывает снимок атомарно.
+     * @param backups сколько предыдущих снимков хранить в файлах {@code <file>.bak.1} (самый свежий) … {@code <file>.bak.N};
+     *                0 — резервные копии не делаются
+     */
+    public static void write(File file, SnapshotFormat format, Collection<Task> tasks, Collection<Epic> epics,
+                             Collection<Subtask> subtasks, int backups) throws IOException {
+        Path target = file.toPath();
+        Path temp = tempFile(file).toPath();
+        try {
+            format.write(temp.toFile(), tasks, epics, subtasks);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            if (backups > 0 && Files.exists(target)) {
+                rotateBackups(file, backups);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Удаляет временный файл, оставшийся от прерванной записи.
+     */
+    public static void deleteStaleTemp(File file) throws IOException {
+        Files.deleteIfExists(tempFile(file).toPath());
+    }
+
+    /**
+     * Файл резервной копии с номером index, 1 — самая свежая.
+     */
+    public static File backupFile(File file, int index) {
+        return new File(file.getPath() + BACKUP_SUFFIX + index);
+    }
+
+    private static File tempFile(File file) {
+        return new File(file.getPath() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Сдвигает копии на одну позицию (самая старая пропадает) и делает текущий снимок копией номер 1.
+     * Текущий снимок не перемещается, а связывается жёсткой ссылкой, поэтому целевой файл не исчезает ни на миг.
+     */
+    private static void rotateBackups(File file, int backups) throws IOException {
+        Files.deleteIfExists(backupFile(file, backups).toPath());
+        for (int i = backups - 1; i >= 1; i--) {
+            Path from = backupFile(file, i).toPath();
+            if (Files.exists(from)) {
+                Files.move(from, backupFile(file, i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path first = backupFile(file, 1).toPath();
+        try {
+            Files.createLink(first, file.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            // Файловая система без жёстких ссылок — обходимся копией
+            Files.copy(file.toPath(), first, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Формат файла-снимка FileBackedTaskManager.
+ */
+public interface SnapshotFormat {
+
+    /**
+     * Записывает снимок всех задач в файл, заменяя его содержимое.
+     */
+    void write(File file, Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks) throws IOException;
+
+    /**
+     * Читает снимок и передаёт каждую задачу обработчику в порядке следования в файле.
+     * Пустой файл считается пустым снимком.
+     */
+    void read(File file, Consumer<Task> consumer) throws IOException;
+
+    /**
+     * true, если прочитанные задачи оставляют описания в файле и читают их при первом обращении.
+     */
+    default boolean keepsDescriptionsOnDisk() {
+        return false;
+    }
+
+    /**
+     * Вызывается перед заменой или удалением прочитанного файла: формат, оставляющий описания на диске,
+     * перестаёт читать из него и закрывает его. Описания задач из файла к этому моменту должны быть в памяти.
+     */
+    default void release(File file) throws IOException {
+    }
+}
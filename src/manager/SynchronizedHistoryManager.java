@@ -0,0 +1,42 @@
+package manager;
+
+import tasks.Task;
+
+import java.util.List;
+
+/**
+ * Потокобезопасная обёртка над HistoryManager.
+ * Все операции выполняются под монитором обёртки.
+ */
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return delegate.getHistory(limit);
+    }
+
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+    }
+}
@@ -0,0 +1,95 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+import tasks.TaskType;
+
+/**
+ * Событие изменения доски: создание, изменение или удаление задачи, эпика или подзадачи.
+ * Изменение эпика публикуется и тогда, когда его статус поменялся из-за подзадач.
+ * Очистка целого типа задач публикуется одним событием CLEARED без id;
+ * очистка эпиков удаляет и все подзадачи.
+ */
+public final class TaskEvent {
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        REMOVED,
+        CLEARED
+    }
+
+    private final Kind kind;
+    private final TaskType type;
+    private final int id;
+    private final Status oldStatus;
+    private final Status newStatus;
+    private final Task task;
+
+    private TaskEvent(Kind kind, TaskType type, int id, Status oldStatus, Status newStatus, Task task) {
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.task = task;
+    }
+
+    static TaskEvent created(Task task) {
+        return new TaskEvent(Kind.CREATED, task.getType(), task.getId(), null, task.getStatus(), task);
+    }
+
+    static TaskEvent updated(Task task, Status oldStatus) {
+        return new TaskEvent(Kind.UPDATED, task.getType(), task.getId(), oldStatus, task.getStatus(), task);
+    }
+
+    static TaskEvent removed(Task task, Status oldStatus) {
+        return new TaskEvent(Kind.REMOVED, task.getType(), task.getId(), oldStatus, null, task);
+    }
+
+    static TaskEvent cleared(TaskType type) {
+        return new TaskEvent(Kind.CLEARED, type, 0, null, null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    /**
+     * id задачи; 0 для CLEARED.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Статус до изменения; null для CREATED и CLEARED.
+     */
+    public Status getOldStatus() {
+        return oldStatus;
+    }
+
+    /**
+     * Статус после изменения; null для REMOVED и CLEARED.
+     */
+    public Status getNewStatus() {
+        return newStatus;
+    }
+
+    /**
+     * Задача после изменения, для REMOVED — удалённая задача, для CLEARED — null.
+     * Это тот же объект, что хранится в менеджере: асинхронный слушатель может увидеть его более поздние изменения.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + type + (kind == Kind.CLEARED ? "" : " " + id)
+                + (oldStatus == null && newStatus == null ? "" : " " + oldStatus + " -> " + newStatus);
+    }
+}
@@ -0,0 +1,195 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылка событий изменений подписчикам.
+ * Синхронный подписчик вызывается в потоке изменения сразу после него — так устроено сохранение в файл.
+ * У асинхронного подписчика своя ограниченная очередь и свой поток доставки,
+ * поэтому медленный слушатель не задерживает ни изменения, ни других слушателей.
+ * Что делать при заполненной очереди, решает подписчик: ждать места (BLOCK) или потерять изменение
+ * и узнать об этом через {@link TaskEventListener#onOverflow} (DROP).
+ */
+public class TaskEventBus {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Поведение изменяющего потока, когда очередь асинхронного подписчика заполнена
+    public enum Overflow {
+        // Ждать, пока слушатель разберёт очередь: изменения не теряются, но пишущий поток тормозит вместе со слушателем
+        BLOCK,
+        // Не ждать: изменение теряется, слушатель получает onOverflow перед следующей доставкой
+        DROP
+    }
+
+    /**
+     * Подписка; закрытие прекращает доставку новых изменений.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+
+    private abstract class Delivery implements Subscription {
+        abstract void deliver(List<TaskEvent> events);
+
+        @Override
+        public void close() {
+            deliveries.remove(this);
+        }
+    }
+
+    private final class SyncDelivery extends Delivery {
+        private final TaskEventListener listener;
+
+        SyncDelivery(TaskEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        void deliver(List<TaskEvent> events) {
+            listener.onEvents(events);
+        }
+    }
+
+    private final class AsyncDelivery extends Delivery {
+        // Признак конца очереди при закрытии подписки
+        private final List<TaskEvent> endOfQueue = new ArrayList<>();
+        private final TaskEventListener listener;
+        private final BlockingQueue<List<TaskEvent>> queue;
+        private final Overflow overflow;
+        private final AtomicInteger lostChanges = new AtomicInteger();
+        private final Thread thread;
+        private volatile boolean closed;
+
+        AsyncDelivery(TaskEventListener listener, int capacity, Overflow overflow) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.overflow = overflow;
+            this.thread = new Thread(this::run, "task-events-" + THREAD_NUMBER.incrementAndGet());
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        void deliver(List<TaskEvent> events) {
+            if (closed) {
+                return;
+            }
+            if (overflow == Overflow.DROP) {
+                if (!queue.offer(events)) {
+                    lostChanges.incrementAndGet();
+                }
+                return;
+            }
+            try {
+                queue.put(events);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lostChanges.incrementAndGet();
+            }
+        }
+
+        /**
+         * Прекращает приём изменений; уже стоящие в очереди будут доставлены.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            super.close();
+            try {
+                queue.put(endOfQueue);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                thread.interrupt();
+            }
+        }
+
+        private void run() {
+            while (true) {
+                List<TaskEvent> events;
+                try {
+                    events = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (events == endOfQueue) {
+                    return;
+                }
+                try {
+                    int lost = lostChanges.getAndSet(0);
+                    if (lost > 0) {
+                        listener.onOverflow(lost);
+                    }
+                    listener.onEvents(events);
+                } catch (RuntimeException e) {
+                    // Ошибка одного слушателя не останавливает его доставку
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Подписывает слушателя, которого вызывают в потоке изменения сразу после него.
+     * Исключение слушателя выбрасывается из изменяющего метода, само изменение при этом уже выполнено
+     * и доставлено остальным подписчикам.
+     */
+    public Subscription subscribeSync(TaskEventListener listener) {
+        SyncDelivery delivery = new SyncDelivery(listener);
+        deliveries.add(delivery);
+        return delivery;
+    }
+
+    /**
+     * Подписывает слушателя с собственной очередью и потоком доставки.
+     * @param capacity максимальное количество недоставленных изменений
+     * @param overflow что делать изменяющему потоку, когда очередь заполнена
+     */
+    public Subscription subscribe(TaskEventListener listener, int capacity, Overflow overflow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер очереди должен быть положительным");
+        }
+        AsyncDelivery delivery = new AsyncDelivery(listener, capacity, overflow);
+        deliveries.add(delivery);
+        return delivery;
+    }
+
+    public boolean hasSubscribers() {
+        return !deliveries.isEmpty();
+    }
+
+    /**
+     * Рассылает события одного изменения всем подписчикам.
+     * Изменение к этому моменту уже выполнено, поэтому ошибка синхронного подписчика не прерывает рассылку:
+     * первая ошибка выбрасывается после доставки всем, остальные добавляются к ней как подавленные.
+     */
+    public void publish(List<TaskEvent> events) {
+        RuntimeException failure = null;
+        for (Delivery delivery : deliveries) {
+            try {
+                delivery.deliver(events);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package manager;
+
+import java.util.List;
+
+/**
+ * Слушатель изменений менеджера задач.
+ */
+@FunctionalInterface
+public interface TaskEventListener {
+    /**
+     * Получает события одного завершённого изменения: одного вызова менеджера или целого пакета runInBatch.
+     * События откатанного пакета не публикуются.
+     * @param events события изменения в порядке их возникновения
+     */
+    void onEvents(List<TaskEvent> events);
+
+    /**
+     * Вызывается перед следующей доставкой, если очередь подписки переполнялась и часть изменений потеряна.
+     * Слушателю, который зеркалирует доску, стоит перечитать её целиком.
+     * @param lostChanges количество потерянных изменений
+     */
+    default void onOverflow(int lostChanges) {
+    }
+}
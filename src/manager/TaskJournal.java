@@ -0,0 +1,188 @@
+package manager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений (write-ahead log) для FileBackedTaskManager.
+ * Каждая запись — одна строка, дописываемая в конец файла, поэтому стоимость записи
+ * не зависит от количества задач. Формат строк определяет менеджер.
+ */
+public class TaskJournal implements Closeable {
+    // Заголовок пакета: за ним следует указанное количество записей
+    private static final String BATCH = "BATCH,";
+
+    private final File file;
+    private BufferedWriter writer;
+    private int size;
+
+    public TaskJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Дописывает запись в журнал и сбрасывает буфер в файл.
+     */
+    public void append(String record) {
+        appendAll(List.of(record), false);
+    }
+
+    /**
+     * Дописывает записи одного пакета с общим заголовком и одним сбросом буфера.
+     * При проигрывании пакет, записанный не до конца, отбрасывается целиком.
+     */
+    public void appendBatch(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        appendAll(records, true);
+    }
+
+    private void appendAll(List<String> records, boolean batch) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true));
+            }
+            if (batch) {
+                writer.write(BATCH + records.size());
+                writer.newLine();
+            }
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+            writer.flush();
+            size += records.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + file.getPath(), e);
+        }
+    }
+
+    /**
+     * Последовательно передаёт все записи журнала обработчику.
+     * Последняя запись, оборванная сбоем посреди дописывания (без перевода строки в конце
+     * или не разобранная обработчиком), пропускается и отрезается от файла, как и недописанный пакет.
+     * Ошибка в любой другой записи пробрасывается: такой журнал повреждён не обрывом.
+     * @return количество прочитанных записей
+     */
+    public int replay(Consumer<String> handler) {
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long complete = lastNewline(raf, raf.length()) + 1;
+            if (complete < raf.length()) {
+                raf.setLength(complete);
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                List<String> batch = new ArrayList<>();
+                int batchSize = 0;
+                String line = reader.readLine();
+                while (line != null) {
+                    String next = reader.readLine();
+                    if (line.isBlank()) {
+                        line = next;
+                        continue;
+                    }
+                    if (line.startsWith(BATCH)) {
+                        batch.clear();
+                        batchSize = Integer.parseInt(line.substring(BATCH.length()));
+                    } else if (batchSize > 0) {
+                        batch.add(line);
+                        if (batch.size() == batchSize) {
+                            batch.forEach(handler);
+                            count += batch.size();
+                            batch.clear();
+                            batchSize = 0;
+                        }
+                    } else if (next != null) {
+                        handler.accept(line);
+                        count++;
+                    } else {
+                        try {
+                            handler.accept(line);
+                            count++;
+                        } catch (RuntimeException e) {
+                            // Строка дописана с переводом строки, но не разбирается — тоже обрыв
+                            raf.setLength(lastNewline(raf, complete - 1) + 1);
+                        }
+                    }
+                    line = next;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала: " + file.getPath(), e);
+        }
+        size = count;
+        return count;
+    }
+
+    /**
+     * Позиция последнего перевода строки в файле до позиции end или -1, если его нет.
+     */
+    private static long lastNewline(RandomAccessFile raf, long end) throws IOException {
+        byte[] buffer = new byte[8192];
+        long position = end;
+        while (position > 0) {
+            int length = (int) Math.min(buffer.length, position);
+            position -= length;
+            raf.seek(position);
+            raf.readFully(buffer, 0, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer[i] == '\n') {
+                    return position + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Количество записей в журнале с момента последней очистки.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Очищает журнал. Вызывается после того, как его записи попали в снимок.
+     */
+    public void reset() {
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при очистке журнала: " + file.getPath(), e);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии журнала: " + file.getPath(), e);
+        } finally {
+            writer = null;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package manager;
 
 import tasks.Epic;
+import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskOverlapException;
+import tasks.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface TaskManager {
 
@@ -31,6 +39,23 @@ public interface TaskManager {
      */
     int addEpic(Epic epic);
 
+    /**
+     * Добавляет задачу, только если она не пересекается по времени с расписанием.
+     * Проверка и добавление — один шаг: параллельное добавление не займёт то же время между ними.
+     * @param task задача для добавления
+     * @return id созданной задачи
+     * @throws TaskOverlapException если задача пересекается с другими; тогда она не добавляется
+     */
+    int addTaskWithoutOverlap(Task task);
+
+    /**
+     * Добавляет подзадачу, только если она не пересекается по времени с расписанием.
+     * @param subtask подзадача для добавления
+     * @return id созданной подзадачи
+     * @throws TaskOverlapException если подзадача пересекается с другими; тогда она не добавляется
+     */
+    int addSubtaskWithoutOverlap(Subtask subtask);
+
     /**
      * Получает задачу по ID
      * @param id искомой задачи
@@ -52,6 +77,30 @@ public interface TaskManager {
      */
     Epic getEpic(int id);
 
+    /**
+     * Получает задачу по ID и записывает просмотр в историю сессии
+     * @param id искомой задачи
+     * @param sessionId сессия пользователя; null — общая история
+     * @return Task найденная задача
+     */
+    Task getTask(int id, String sessionId);
+
+    /**
+     * Получает подзадачу по ID и записывает просмотр в историю сессии
+     * @param id искомой подзадачи
+     * @param sessionId сессия пользователя; null — общая история
+     * @return Subtask найденная подзадача
+     */
+    Subtask getSubtask(int id, String sessionId);
+
+    /**
+     * Получает эпик по ID и записывает просмотр в историю сессии
+     * @param id искомого эпика
+     * @param sessionId сессия пользователя; null — общая история
+     * @return Epic найденный эпик
+     */
+    Epic getEpic(int id, String sessionId);
+
     // --- Получение всех ---
 
     /**
@@ -102,6 +151,23 @@ public interface TaskManager {
      */
     boolean updateEpic(Epic epic);
 
+    /**
+     * Обновляет задачу, только если новое время не пересекается с расписанием.
+     * Проверка и обновление — один шаг, как у {@link #addTaskWithoutOverlap}.
+     * @param task задача с обновлёнными данными (id обязателен)
+     * @return true, если обновление прошло успешно
+     * @throws TaskOverlapException если задача пересекается с другими; тогда она не меняется
+     */
+    boolean updateTaskWithoutOverlap(Task task);
+
+    /**
+     * Обновляет подзадачу, только если новое время не пересекается с расписанием.
+     * @param subtask подзадача с обновлёнными данными (id обязателен)
+     * @return true, если обновление прошло успешно
+     * @throws TaskOverlapException если подзадача пересекается с другими; тогда она не меняется
+     */
+    boolean updateSubtaskWithoutOverlap(Subtask subtask);
+
     // --- Удаление по ID ---
 
     /**
@@ -147,6 +213,20 @@ public interface TaskManager {
      */
     List<Task> getHistory();
 
+    /**
+     * Получает последние просмотренные задачи
+     * @param limit максимальное количество задач
+     * @return List<Task> не более limit последних задач истории в порядке просмотра
+     */
+    List<Task> getHistory(int limit);
+
+    /**
+     * Получает историю просмотров сессии
+     * @param sessionId сессия пользователя; null — общая история
+     * @return List<Task> список просмотренных в сессии задач
+     */
+    List<Task> getHistory(String sessionId);
+
     // --- Приоритеты ---
 
     /**
@@ -155,6 +235,175 @@ public interface TaskManager {
      */
     List<Task> getPrioritizedTasks();
 
+    /**
+     * Получает задачи, пересекающиеся по времени с переданной.
+     * Сама задача (с тем же id) в результат не попадает.
+     * @param task проверяемая задача
+     * @return List<Task> список пересекающихся задач, упорядоченный по времени начала
+     */
+    List<Task> getOverlappingTasks(Task task);
+
+    /**
+     * Получает страницу приоритетных задач без копирования всего списка
+     * @param after последняя задача предыдущей страницы; null — первая страница
+     * @param limit максимальный размер страницы
+     * @return List<Task> задачи, идущие по времени начала сразу после after
+     */
+    List<Task> getPrioritizedTasks(Task after, int limit);
+
+    /**
+     * Получает задачи и подзадачи, которые пересекаются с интервалом, например с одним днём календаря.
+     * Стоимость зависит от количества задач в интервале, а не от размера всего расписания
+     * @param from начало интервала включительно
+     * @param to конец интервала, не включая
+     * @return List<Task> задачи интервала в порядке времени начала
+     */
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Получает ближайшие задачи, начинающиеся не раньше указанного момента
+     * @param after момент, с которого ищутся задачи
+     * @param limit максимальное количество задач
+     * @return List<Task> задачи в порядке времени начала
+     */
+    List<Task> getNextTasks(LocalDateTime after, int limit);
+
+    /**
+     * Получает задачи, которые идут в указанный момент
+     * @param time момент времени
+     * @return List<Task> задачи, у которых startTime <= time < endTime
+     */
+    List<Task> getTasksActiveAt(LocalDateTime time);
+
+    /**
+     * Ищет самое раннее время, с которого задача указанной длительности не пересекается с расписанием
+     * @param duration длительность задачи
+     * @param from начало окна поиска; null — текущий момент
+     * @param to граница окна, до которой задача должна закончиться; null — без границы
+     * @return LocalDateTime время начала или null, если в окне нет подходящего промежутка
+     */
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Расставляет задачи и подзадачи по свободным промежуткам окна одним пакетом изменений.
+     * Задачи обрабатываются в порядке списка: каждая занимает самый ранний промежуток, в который помещается,
+     * поэтому порядок списка задаёт приоритет. Прежнее время задач пакета освобождается,
+     * а задачи, которым не нашлось места, остаются без времени начала
+     * @param tasks сохранённые задачи и подзадачи; эпики не поддерживаются, их время следует из подзадач
+     * @param from начало окна; null — текущий момент
+     * @param to граница окна; null — без границы
+     * @return List<Task> задачи, получившие время начала, в порядке списка
+     */
+    List<Task> scheduleTasks(List<? extends Task> tasks, LocalDateTime from, LocalDateTime to);
+
+    // --- Поиск ---
+
+    /**
+     * Ищет задачи всех типов по условиям через вторичные индексы, не перебирая всю доску
+     * @param type тип задачи; null — любой
+     * @param status статус; null — любой
+     * @param day день начала задачи; null — любой, включая задачи без времени
+     * @return List<Task> подходящие задачи в порядке возрастания id
+     */
+    List<Task> findTasks(TaskType type, Status status, LocalDate day);
+
+    /**
+     * Полнотекстовый поиск по названию и описанию задач, эпиков и подзадач.
+     * Каждое слово запроса ищется как префикс, задача должна содержать все слова запроса
+     * @param query строка запроса
+     * @param limit максимальное количество результатов
+     * @return List<Task> найденные задачи, самые релевантные первыми
+     */
+    List<Task> search(String query, int limit);
+
+    // --- События ---
+
+    /**
+     * Подписывает слушателя на изменения с очередью по умолчанию: если слушатель не успевает,
+     * изменения теряются, а слушатель получает onOverflow, — пишущие потоки его не ждут
+     * @param listener слушатель
+     * @return TaskEventBus.Subscription подписка, закрытие которой прекращает доставку
+     */
+    TaskEventBus.Subscription subscribe(TaskEventListener listener);
+
+    /**
+     * Подписывает слушателя на изменения. События доставляются в отдельном потоке через ограниченную очередь
+     * @param listener слушатель
+     * @param capacity максимальное количество недоставленных изменений
+     * @param overflow ждать ли пишущему потоку места в заполненной очереди или потерять изменение
+     * @return TaskEventBus.Subscription подписка, закрытие которой прекращает доставку
+     */
+    TaskEventBus.Subscription subscribe(TaskEventListener listener, int capacity, TaskEventBus.Overflow overflow);
+
+    // --- Постраничный просмотр ---
+
+    /**
+     * Получает количество задач указанного типа
+     * @param type тип задач
+     * @return int количество задач
+     */
+    int count(TaskType type);
+
+    /**
+     * Получает страницу задач в порядке возрастания id
+     * @param afterId id последней задачи предыдущей страницы; 0 — первая страница
+     * @param limit максимальный размер страницы
+     * @return List<Task> не более limit задач с id больше afterId
+     */
+    List<Task> getTasksPage(int afterId, int limit);
+
+    /**
+     * Получает страницу подзадач в порядке возрастания id
+     * @param afterId id последней подзадачи предыдущей страницы; 0 — первая страница
+     * @param limit максимальный размер страницы
+     * @return List<Subtask> не более limit подзадач с id больше afterId
+     */
+    List<Subtask> getSubtasksPage(int afterId, int limit);
+
+    /**
+     * Получает страницу эпиков в порядке возрастания id
+     * @param afterId id последнего эпика предыдущей страницы; 0 — первая страница
+     * @param limit максимальный размер страницы
+     * @return List<Epic> не более limit эпиков с id больше afterId
+     */
+    List<Epic> getEpicsPage(int afterId, int limit);
+
+    /**
+     * Поток задач без копирования хранилища. Менеджер нельзя изменять, пока поток не дочитан
+     * @return Stream<Task> поток всех задач
+     */
+    Stream<Task> streamTasks();
+
+    /**
+     * Поток подзадач без копирования хранилища. Менеджер нельзя изменять, пока поток не дочитан
+     * @return Stream<Subtask> поток всех подзадач
+     */
+    Stream<Subtask> streamSubtasks();
+
+    /**
+     * Поток эпиков без копирования хранилища. Менеджер нельзя изменять, пока поток не дочитан
+     * @return Stream<Epic> поток всех эпиков
+     */
+    Stream<Epic> streamEpics();
+
+    /**
+     * Поток подзадач эпика без копирования. Менеджер нельзя изменять, пока поток не дочитан
+     * @param epicId id эпика
+     * @return Stream<Subtask> поток подзадач эпика; пустой, если эпика нет
+     */
+    Stream<Subtask> streamEpicSubtasks(int epicId);
+
+    // --- Пакетные изменения ---
+
+    /**
+     * Выполняет набор изменений как одну единицу работы.
+     * Пересчёт эпиков (и сохранение у менеджеров с файловым хранилищем) выполняется один раз в конце.
+     * Если work выбрасывает исключение, все изменения пакета откатываются, а исключение пробрасывается дальше.
+     * Вложенный вызов становится частью внешнего пакета.
+     * @param work изменения, выполняемые над этим менеджером
+     */
+    void runInBatch(Consumer<TaskManager> work);
+
     // --- Утилиты ---
 
     /**
@@ -0,0 +1,168 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Вторичные индексы задач: статус, тип и день начала -> множество id.
+ * Запрос по нескольким условиям обходит самое маленькое из подходящих множеств
+ * и проверяет остальные условия по битам, поэтому стоит пропорционально этому множеству, а не всей доске.
+ * Для каждого id хранится снимок проиндексированных полей: запись удаляется из тех множеств,
+ * в которые попала, даже если объект задачи с тех пор изменили снаружи.
+ */
+public class TaskQueryIndex {
+    private final IdSet all = new IdSet();
+    private final IdSet[] byStatus = newSets(Status.values().length);
+    private final IdSet[] byType = newSets(TaskType.values().length);
+    private final Map<LocalDate, IdSet> byDay = new HashMap<>();
+    private final IntObjectHashMap<Entry> entries = new IntObjectHashMap<>();
+
+    /**
+     * Проиндексированные поля задачи.
+     */
+    private static final class Entry {
+        final Status status;
+        final TaskType type;
+        final LocalDate day;
+
+        Entry(Task task) {
+            this.status = task.getStatus();
+            this.type = task.getType();
+            this.day = task.getStartTime() == null ? null : task.getStartTime().toLocalDate();
+        }
+    }
+
+    private static IdSet[] newSets(int count) {
+        IdSet[] sets = new IdSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new IdSet();
+        }
+        return sets;
+    }
+
+    /**
+     * Добавляет задачу в индексы или обновляет её, если задача с таким id уже есть.
+     */
+    public void put(Task task) {
+        int id = task.getId();
+        remove(id);
+        if (id < 0) {
+            // Менеджер выдаёт только положительные id; задачи с другими id в запросах не участвуют
+            return;
+        }
+        Entry entry = new Entry(task);
+        entries.put(id, entry);
+        all.add(id);
+        if (entry.status != null) {
+            byStatus[entry.status.ordinal()].add(id);
+        }
+        byType[entry.type.ordinal()].add(id);
+        if (entry.day != null) {
+            byDay.computeIfAbsent(entry.day, day -> new IdSet()).add(id);
+        }
+    }
+
+    public void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        if (entry.status != null) {
+            byStatus[entry.status.ordinal()].remove(id);
+        }
+        byType[entry.type.ordinal()].remove(id);
+        if (entry.day != null) {
+            IdSet day = byDay.get(entry.day);
+            day.remove(id);
+            if (day.size() == 0) {
+                byDay.remove(entry.day);
+            }
+        }
+    }
+
+    public void clear() {
+        all.clear();
+        for (IdSet set : byStatus) {
+            set.clear();
+        }
+        for (IdSet set : byType) {
+            set.clear();
+        }
+        byDay.clear();
+        entries.clear();
+    }
+
+    /**
+     * Тип проиндексированной задачи или null, если id нет в индексе.
+     */
+    public TaskType typeOf(int id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.type;
+    }
+
+    /**
+     * Статус проиндексированной задачи или null, если id нет в индексе.
+     */
+    public Status statusOf(int id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.status;
+    }
+
+    /**
+     * id задач, удовлетворяющих всем заданным условиям, по возрастанию.
+     * @param type тип задачи; null — любой
+     * @param status статус; null — любой
+     * @param day день начала; null — любой, включая задачи без времени
+     */
+    public int[] find(TaskType type, Status status, LocalDate day) {
+        List<IdSet> conditions = new ArrayList<>(3);
+        if (type != null) {
+            conditions.add(byType[type.ordinal()]);
+        }
+        if (status != null) {
+            conditions.add(byStatus[status.ordinal()]);
+        }
+        if (day != null) {
+            IdSet bucket = byDay.get(day);
+            if (bucket == null) {
+                return new int[0];
+            }
+            conditions.add(bucket);
+        }
+        IdSet driver = all;
+        for (IdSet condition : conditions) {
+            if (condition.size() < driver.size()) {
+                driver = condition;
+            }
+        }
+        int[] result = new int[Math.min(driver.size(), 16)];
+        int count = 0;
+        for (int id = driver.next(0); id >= 0; id = id == Integer.MAX_VALUE ? -1 : driver.next(id + 1)) {
+            if (matchesAll(conditions, driver, id)) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(driver.size(), count * 2));
+                }
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean matchesAll(List<IdSet> conditions, IdSet driver, int id) {
+        for (IdSet condition : conditions) {
+            if (condition != driver && !condition.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,379 @@
+package manager;
+
+import tasks.Task;
+import tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Полнотекстовый индекс по названию и описанию задач.
+ * Текст разбивается на слова из букв и цифр и приводится к нижнему регистру.
+ * Обратный индекс хранит для каждого слова отсортированный массив id и лежит в TreeMap,
+ * поэтому все слова с заданным префиксом — это один подотрезок карты.
+ * Каждое слово запроса ищется как префикс, документ должен содержать все слова запроса.
+ * Запрос обходит только документы самого редкого слова запроса, остальные слова проверяются по словам документа,
+ * и останавливается, как только набрано limit результатов с наибольшей возможной оценкой.
+ */
+public class TextSearchIndex {
+    // Веса совпадений: слово названия важнее слова описания, полное совпадение важнее префикса
+    private static final int TITLE_EXACT = 4;
+    private static final int TITLE_PREFIX = 2;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final IntObjectHashMap<Document> documents = new IntObjectHashMap<>();
+
+    /**
+     * Проиндексированный текст задачи.
+     * Описание не хранится — только его слова, чтобы индекс не держал в памяти тексты описаний.
+     */
+    private static final class Document {
+        final TaskType type;
+        final String title;
+        final String[] titleTerms;
+        final String[] descriptionTerms;
+
+        Document(TaskType type, String title, String[] titleTerms, String[] descriptionTerms) {
+            this.type = type;
+            this.title = title;
+            this.titleTerms = titleTerms;
+            this.descriptionTerms = descriptionTerms;
+        }
+    }
+
+    /**
+     * Отсортированный по возрастанию список id документов, содержащих слово.
+     * Новые id обычно больше существующих, поэтому вставка чаще всего — дописывание в конец.
+     */
+    private static final class Postings {
+        int[] ids = new int[2];
+        int size;
+        // В скольких документах слово встречается в названии
+        int titleCount;
+
+        void add(int id) {
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size) {
+                return;
+            }
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Найденный документ с оценкой релевантности.
+     */
+    public static final class Hit {
+        private final int id;
+        private final TaskType type;
+        private final int score;
+
+        Hit(int id, TaskType type, int score) {
+            this.id = id;
+            this.type = type;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public TaskType getType() {
+            return type;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Индексирует текст задачи или обновляет его. Если название и описание не изменились, ничего не делает.
+     */
+    public void put(Task task) {
+        int id = task.getId();
+        if (id < 0) {
+            return;
+        }
+        Document current = documents.get(id);
+        String[] descriptionTokens = tokenize(task.getDescription());
+        if (current != null && current.type == task.getType()
+                && equal(current.title, task.getTitle()) && Arrays.equals(current.descriptionTerms, descriptionTokens)) {
+            return;
+        }
+        remove(id);
+        String[] titleTerms = addTerms(id, tokenize(task.getTitle()), true);
+        String[] descriptionTerms = addTerms(id, descriptionTokens, false);
+        documents.put(id, new Document(task.getType(), task.getTitle(), titleTerms, descriptionTerms));
+    }
+
+    public void remove(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        removeTerms(id, document.titleTerms, true);
+        removeTerms(id, document.descriptionTerms, false);
+    }
+
+    public void clear() {
+        terms.clear();
+        documents.clear();
+    }
+
+    /**
+     * Ищет документы, содержащие все слова запроса (каждое — как префикс).
+     * @param query строка запроса
+     * @param limit максимальное количество результатов
+     * @return результаты по убыванию релевантности, при равенстве — по возрастанию id
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] queryTerms = tokenize(query);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Ведущее слово — с наименьшим числом документов по всем словам с этим префиксом
+        // Заодно оценивается наибольшая достижимая оценка: слово, которого нет ни в одном названии,
+        // не может дать больше веса совпадения в описании
+        Map<String, Postings> driver = null;
+        long driverSize = Long.MAX_VALUE;
+        int maxScore = 0;
+        for (String term : queryTerms) {
+            Map<String, Postings> expansion = withPrefix(term);
+            long size = 0;
+            int best = 0;
+            for (Map.Entry<String, Postings> entry : expansion.entrySet()) {
+                Postings postings = entry.getValue();
+                size += postings.size;
+                boolean exact = entry.getKey().equals(term);
+                if (postings.titleCount > 0) {
+                    best = Math.max(best, exact ? TITLE_EXACT : TITLE_PREFIX);
+                }
+                best = Math.max(best, exact ? DESCRIPTION_EXACT : DESCRIPTION_PREFIX);
+            }
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+            maxScore += best;
+            if (size < driverSize) {
+                driver = expansion;
+                driverSize = size;
+            }
+        }
+
+        // Кандидаты идут по возрастанию id, а при равной оценке выше меньший id.
+        // Поэтому, когда все limit результатов набрали наибольшую возможную оценку, дальше искать незачем
+        int bestPossible = maxScore;
+        PriorityQueue<Hit> top = new PriorityQueue<>(TextSearchIndex::compareWorstFirst);
+        forEachCandidate(driver, id -> {
+            Document document = documents.get(id);
+            int score = score(document, queryTerms);
+            if (score == 0) {
+                return true;
+            }
+            Hit hit = new Hit(id, document.type, score);
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (compareWorstFirst(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+            return top.size() < limit || top.peek().score < bestPossible;
+        });
+        List<Hit> result = new ArrayList<>(top);
+        result.sort((a, b) -> compareWorstFirst(b, a));
+        return result;
+    }
+
+    /**
+     * Разбивает текст на слова из букв и цифр в нижнем регистре, без повторов.
+     */
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private Map<String, Postings> withPrefix(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private interface IdConsumer {
+        /**
+         * @return false, чтобы прекратить обход
+         */
+        boolean accept(int id);
+    }
+
+    /**
+     * Курсор по списку id одного слова при слиянии списков.
+     */
+    private static final class Cursor {
+        final Postings postings;
+        int position;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        int current() {
+            return postings.ids[position];
+        }
+    }
+
+    /**
+     * Обходит id документов ведущего слова по возрастанию и без повторов.
+     * Списки разных слов с общим префиксом сливаются лениво, поэтому обход можно прервать, не читая их целиком.
+     */
+    private void forEachCandidate(Map<String, Postings> driver, IdConsumer action) {
+        if (driver.size() == 1) {
+            Postings postings = driver.values().iterator().next();
+            for (int i = 0; i < postings.size; i++) {
+                if (!action.accept(postings.ids[i])) {
+                    return;
+                }
+            }
+            return;
+        }
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(driver.size(),
+                (a, b) -> Integer.compare(a.current(), b.current()));
+        for (Postings postings : driver.values()) {
+            cursors.add(new Cursor(postings));
+        }
+        int last = -1;
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            int id = cursor.current();
+            if (id != last) {
+                if (!action.accept(id)) {
+                    return;
+                }
+                last = id;
+            }
+            if (++cursor.position < cursor.postings.size) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Сумма лучших совпадений по каждому слову запроса; 0, если какое-то слово не нашлось.
+     */
+    private static int score(Document document, String[] queryTerms) {
+        int total = 0;
+        for (String queryTerm : queryTerms) {
+            int best = Math.max(
+                    match(document.titleTerms, queryTerm, TITLE_EXACT, TITLE_PREFIX),
+                    match(document.descriptionTerms, queryTerm, DESCRIPTION_EXACT, DESCRIPTION_PREFIX));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int match(String[] documentTerms, String queryTerm, int exactWeight, int prefixWeight) {
+        int best = 0;
+        for (String term : documentTerms) {
+            if (term.equals(queryTerm)) {
+                return exactWeight;
+            }
+            if (term.startsWith(queryTerm)) {
+                best = prefixWeight;
+            }
+        }
+        return best;
+    }
+
+    private static int compareWorstFirst(Hit a, Hit b) {
+        if (a.score != b.score) {
+            return Integer.compare(a.score, b.score);
+        }
+        // При равной оценке выше стоит меньший id
+        return Integer.compare(b.id, a.id);
+    }
+
+    /**
+     * Добавляет id в списки слов. Возвращает слова, взятые из ключей индекса, чтобы одинаковые
+     * слова разных документов ссылались на одну строку.
+     */
+    private String[] addTerms(int id, String[] tokens, boolean title) {
+        String[] canonical = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            Map.Entry<String, Postings> entry = terms.ceilingEntry(tokens[i]);
+            Postings postings;
+            if (entry != null && entry.getKey().equals(tokens[i])) {
+                canonical[i] = entry.getKey();
+                postings = entry.getValue();
+            } else {
+                canonical[i] = tokens[i];
+                postings = new Postings();
+                terms.put(tokens[i], postings);
+            }
+            postings.add(id);
+            if (title) {
+                postings.titleCount++;
+            }
+        }
+        return canonical;
+    }
+
+    private void removeTerms(int id, String[] documentTerms, boolean title) {
+        for (String term : documentTerms) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(id);
+            if (title) {
+                postings.titleCount--;
+            }
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,288 @@
+package manager;
+
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Индекс временных слотов задач, упорядоченный по startTime, а при равном startTime — по id.
+ * В индекс попадают только задачи со временем начала, не пересекающиеся между собой,
+ * поэтому проверка пересечения и выборка задач за интервал сводятся к поиску соседей по startTime
+ * и стоят O(log N + k), где k — размер результата.
+ * Одинаковое время начала возможно только у задач нулевой длительности, они хранятся рядом, а не затирают друг друга.
+ */
+public class TimeSlotIndex {
+    private final TreeMap<Slot, Task> slots = new TreeMap<>();
+
+    /**
+     * Ключ индекса: время начала и id задачи.
+     */
+    private static final class Slot implements Comparable<Slot> {
+        final LocalDateTime start;
+        final int id;
+
+        Slot(LocalDateTime start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        static Slot of(Task task) {
+            return new Slot(task.getStartTime(), task.getId());
+        }
+
+        /**
+         * Ключ, который меньше всех ключей с этим временем начала.
+         */
+        static Slot first(LocalDateTime start) {
+            return new Slot(start, Integer.MIN_VALUE);
+        }
+
+        /**
+         * Ключ, который больше всех ключей с этим временем начала.
+         */
+        static Slot last(LocalDateTime start) {
+            return new Slot(start, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Добавляет задачу в индекс.
+     * @param task задача с заданным startTime
+     * @return true, если задача добавлена; false, если у неё нет времени начала,
+     * слот уже занят или задача пересекается с другими
+     */
+    public boolean add(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return false;
+        }
+        if (slots.containsKey(Slot.of(task)) || hasOverlap(task)) {
+            return false;
+        }
+        slots.put(Slot.of(task), task);
+        return true;
+    }
+
+    /**
+     * Удаляет задачу из индекса, если именно она занимает свой слот.
+     */
+    public boolean remove(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return false;
+        }
+        return slots.remove(Slot.of(task)) != null;
+    }
+
+    /**
+     * Проверяет, пересекается ли задача хотя бы с одной задачей индекса (кроме самой себя).
+     */
+    public boolean hasOverlap(Task task) {
+        return !collectOverlapping(task, true).isEmpty();
+    }
+
+    /**
+     * Возвращает задачи индекса, пересекающиеся по времени с переданной (кроме самой себя).
+     * @param task проверяемая задача
+     * @return список пересекающихся задач в порядке startTime
+     */
+    public List<Task> findOverlapping(Task task) {
+        return collectOverlapping(task, false);
+    }
+
+    /**
+     * Возвращает задачи индекса в порядке startTime.
+     */
+    public List<Task> getTasks() {
+        return new ArrayList<>(slots.values());
+    }
+
+    /**
+     * Страница задач индекса в порядке startTime, начиная сразу после задачи after.
+     * @param after последняя задача предыдущей страницы; null — с начала
+     * @param limit максимальный размер страницы
+     */
+    public List<Task> page(Task after, int limit) {
+        Map<Slot, Task> tail = after == null ? slots : slots.tailMap(Slot.of(after), false);
+        List<Task> result = new ArrayList<>(Math.min(Math.max(limit, 0), slots.size()));
+        for (Task task : tail.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /**
+     * Задачи, которые пересекаются с интервалом [from, to), в порядке startTime.
+     * Задача нулевой длительности попадает в результат, если начинается внутри интервала.
+     * @param to конец интервала; null — интервал без правой границы
+     */
+    public List<Task> between(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        if (to != null && !from.isBefore(to)) {
+            return result;
+        }
+        for (Task task : startingBefore(from, to).values()) {
+            if (!task.getStartTime().isBefore(from) || endOf(task).isAfter(from)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Самое раннее время начала не раньше from, с которого задача длительности duration
+     * не пересекается ни с одной задачей индекса и заканчивается не позже to.
+     * Обходит только задачи до найденного промежутка: O(log N + количество пропущенных задач).
+     * @param to граница окна; null — без границы
+     * @return время начала или null, если в окне нет подходящего промежутка
+     */
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность не может быть отрицательной: " + duration);
+        }
+        LocalDateTime candidate = from;
+        for (Task task : startingBefore(from, to).values()) {
+            if (!task.getStartTime().isBefore(candidate.plus(duration))) {
+                break;
+            }
+            LocalDateTime end = endOf(task);
+            if (end.isAfter(candidate)) {
+                candidate = end;
+            }
+        }
+        if (to != null && candidate.plus(duration).isAfter(to)) {
+            return null;
+        }
+        return candidate;
+    }
+
+    /**
+     * Планировщик свободных промежутков окна [from, to) по текущему состоянию индекса.
+     * @param to граница окна; null — без границы
+     */
+    public FreeSlotPlanner planner(LocalDateTime from, LocalDateTime to) {
+        return new FreeSlotPlanner(from, to, between(from, to));
+    }
+
+    /**
+     * Первые limit задач, начинающихся не раньше from, в порядке startTime.
+     */
+    public List<Task> startingFrom(LocalDateTime from, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(Math.max(limit, 0), slots.size()));
+        for (Task task : slots.tailMap(Slot.first(from), true).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /**
+     * Задачи, которые идут в момент time: startTime <= time < endTime.
+     * Задачи индекса не пересекаются, поэтому это не больше одной задачи ненулевой длительности.
+     */
+    public List<Task> activeAt(LocalDateTime time) {
+        List<Task> result = new ArrayList<>(1);
+        Slot first = groupBefore(time, true);
+        if (first == null) {
+            return result;
+        }
+        for (Task task : slots.subMap(first, true, Slot.last(first.start), true).values()) {
+            if (endOf(task).isAfter(time)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public void clear() {
+        slots.clear();
+    }
+
+    private List<Task> collectOverlapping(Task task, boolean firstOnly) {
+        List<Task> result = new ArrayList<>();
+        if (task == null || task.getStartTime() == null) {
+            return result;
+        }
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = endOf(task);
+        // Задачи индекса не пересекаются, поэтому раньше start на интервал
+        // могут заходить только задачи с ближайшим слева временем начала.
+        Slot from = groupBefore(start, true);
+        if (from == null) {
+            from = Slot.first(start);
+        }
+        for (Map.Entry<Slot, Task> entry : slots.tailMap(from, true).entrySet()) {
+            LocalDateTime otherStart = entry.getKey().start;
+            if (!otherStart.isBefore(end) && otherStart.isAfter(start)) {
+                break;
+            }
+            Task other = entry.getValue();
+            if (other.getId() != task.getId() && intersects(task, other)) {
+                result.add(other);
+                if (firstOnly) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Задачи, начинающиеся раньше to, начиная с тех, что могут заходить на from.
+     * Начавшиеся раньше from задачи могут заходить на from, только если это самые поздние из них.
+     */
+    private Map<Slot, Task> startingBefore(LocalDateTime from, LocalDateTime to) {
+        Slot first = groupBefore(from, false);
+        if (first == null) {
+            first = Slot.first(from);
+        }
+        return to == null ? slots.tailMap(first, true) : slots.subMap(first, true, Slot.first(to), false);
+    }
+
+    /**
+     * Первый ключ среди задач с самым поздним временем начала, которое меньше time
+     * (или не больше, если inclusive); null, если таких задач нет.
+     */
+    private Slot groupBefore(LocalDateTime time, boolean inclusive) {
+        Slot last = inclusive ? slots.floorKey(Slot.last(time)) : slots.lowerKey(Slot.first(time));
+        return last == null ? null : Slot.first(last.start);
+    }
+
+    /**
+     * Проверка пересечения по времени двух задач.
+     * @param task1 первая задача
+     * @param task2 вторая задача
+     * @return true, если задачи пересекаются по времени, иначе false
+     */
+    static boolean intersects(Task task1, Task task2) {
+        if (task1 == null || task2 == null || task1.getStartTime() == null || task2.getStartTime() == null) {
+            return false;
+        }
+        return endOf(task1).isAfter(task2.getStartTime()) && endOf(task2).isAfter(task1.getStartTime());
+    }
+
+    static LocalDateTime endOf(Task task) {
+        if (task.getEndTime() != null) {
+            return task.getEndTime();
+        }
+        return task.getStartTime().plus(task.getDuration());
+    }
+}
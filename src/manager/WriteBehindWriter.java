@@ -0,0 +1,137 @@
+package manager;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Фоновая запись снимка (write-behind).
+ * Изменение только помечает данные «грязными» — это пара атомарных операций без обращения к диску.
+ * Фоновый поток раз в интервал, или раньше, если накопилось maxPendingChanges изменений,
+ * выполняет одно сохранение за всю серию изменений.
+ * Данные на диске отстают от памяти не больше чем на интервал плюс время одного сохранения.
+ * Фоновый поток запускается методом {@link #start()}; до этого изменения сохраняются только через flush().
+ */
+public class WriteBehindWriter implements Closeable {
+    private final Runnable save;
+    private final long intervalNanos;
+    private final int maxPendingChanges;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    // Сохранения фонового потока и flush() не должны идти одновременно
+    private final Object saveMonitor = new Object();
+    private final String name;
+    // null до вызова start()
+    private volatile Thread thread;
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param save сохранение снимка; вызывается только из одного потока за раз
+     * @param intervalNanos максимальный интервал между изменением и его сохранением
+     * @param maxPendingChanges количество изменений, после которого сохранение начинается не дожидаясь интервала
+     * @param name имя фонового потока
+     */
+    public WriteBehindWriter(Runnable save, long intervalNanos, int maxPendingChanges, String name) {
+        if (intervalNanos <= 0 || maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("Интервал и порог фоновой записи должны быть положительными");
+        }
+        this.save = save;
+        this.intervalNanos = intervalNanos;
+        this.maxPendingChanges = maxPendingChanges;
+        this.name = name;
+    }
+
+    /**
+     * Запускает фоновый поток. Вызывается, когда сохраняемое состояние уже готово.
+     */
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Фоновая запись уже запущена");
+        }
+        Thread started = new Thread(this::run, name);
+        started.setDaemon(true);
+        thread = started;
+        started.start();
+    }
+
+    /**
+     * Отмечает, что данные в памяти изменились. Вызывается после самого изменения.
+     */
+    public void markDirty() {
+        if (closed) {
+            throw new IllegalStateException("Фоновая запись уже остановлена");
+        }
+        dirty.set(true);
+        if (pendingChanges.incrementAndGet() == maxPendingChanges) {
+            // До start() thread равен null, и unpark ничего не делает
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Синхронно сохраняет все изменения, сделанные до вызова.
+     * Если фоновое сохранение завершилось ошибкой, она выбрасывается здесь.
+     */
+    public void flush() {
+        saveIfDirty();
+        RuntimeException error = failure;
+        if (error != null) {
+            failure = null;
+            throw error;
+        }
+    }
+
+    /**
+     * Останавливает фоновый поток и сохраняет оставшиеся изменения.
+     */
+    @Override
+    public void close() {
+        Thread running = thread;
+        if (!closed) {
+            closed = true;
+            if (running != null) {
+                LockSupport.unpark(running);
+                try {
+                    running.join(TimeUnit.NANOSECONDS.toMillis(intervalNanos) + 10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        flush();
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (closed) {
+                return;
+            }
+            try {
+                saveIfDirty();
+            } catch (RuntimeException e) {
+                // Ошибка будет выброшена из flush()/close(); данные остаются грязными для повторной попытки
+                failure = e;
+            }
+        }
+    }
+
+    private void saveIfDirty() {
+        synchronized (saveMonitor) {
+            if (!dirty.getAndSet(false)) {
+                return;
+            }
+            pendingChanges.set(0);
+            try {
+                save.run();
+                failure = null;
+            } catch (RuntimeException e) {
+                dirty.set(true);
+                throw e;
+            }
+        }
+    }
+}
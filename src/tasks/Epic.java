@@ -3,10 +3,38 @@ package tasks;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public class Epic extends Task {
-    private final List<Subtask> subtasks = new ArrayList<>();
+    // Подзадачи по id вместе с тем, что каждая из них внесла в агрегаты эпика
+    private final Map<Integer, Contribution> subtasks = new LinkedHashMap<>();
+    // Агрегаты по подзадачам, обновляются при каждом добавлении и удалении
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private Duration subtasksDuration = Duration.ZERO;
+
+    /**
+     * Снимок полей подзадачи на момент её учёта в агрегатах.
+     * Нужен, чтобы корректно вычесть вклад, даже если объект подзадачи изменили снаружи.
+     */
+    private static class Contribution {
+        final Subtask subtask;
+        final Status status;
+        final LocalDateTime startTime;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.subtask = subtask;
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.duration = subtask.getDuration();
+        }
+    }
 
     // Новый конструктор для FileBackedTaskManager (принимает id, title, description, status, startTime, duration, endTime)
     public Epic(int id, String title, String description, Status status, LocalDateTime startTime, Duration duration, LocalDateTime endTime) {
@@ -33,19 +61,99 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    /**
+     * Добавляет подзадачу в эпик. Подзадача с тем же id заменяется.
+     * Агрегаты обновляются за O(log K), где K — количество подзадач.
+     */
     public void addSubtask(Subtask subtask) {
         if (getId() == subtask.getId()) {
             throw new IllegalArgumentException("Подзадача не может быть своим эпиком");
         }
-        subtasks.add(subtask);
+        Contribution previous = subtasks.put(subtask.getId(), new Contribution(subtask));
+        if (previous != null) {
+            subtract(previous);
+        }
+        add(subtasks.get(subtask.getId()));
     }
 
     public void removeSubtask(Subtask subtask) {
-        subtasks.removeIf(s -> s.getId() == subtask.getId());
+        Contribution removed = subtasks.remove(subtask.getId());
+        if (removed != null) {
+            subtract(removed);
+        }
+    }
+
+    public void clearSubtasks() {
+        subtasks.clear();
+        startTimes.clear();
+        Arrays.fill(statusCounts, 0);
+        subtasksDuration = Duration.ZERO;
+    }
+
+    /**
+     * Полностью пересчитывает агрегаты по текущим полям подзадач.
+     * Нужен, если подзадачи менялись в обход эпика (например, через setStatus).
+     */
+    public void recalculate() {
+        List<Subtask> current = getSubtasks();
+        clearSubtasks();
+        for (Subtask subtask : current) {
+            addSubtask(subtask);
+        }
     }
 
     public List<Subtask> getSubtasks() {
-        return new ArrayList<>(subtasks); // Возвращаем копию, чтобы защитить внутренний список
+        // Возвращаем копию, чтобы защитить внутреннее хранилище
+        List<Subtask> result = new ArrayList<>(subtasks.size());
+        for (Contribution contribution : subtasks.values()) {
+            result.add(contribution.subtask);
+        }
+        return result;
+    }
+
+    /**
+     * Подзадачи эпика без копирования. Эпик нельзя изменять, пока поток не дочитан.
+     */
+    public Stream<Subtask> subtaskStream() {
+        return subtasks.values().stream().map(contribution -> contribution.subtask);
+    }
+
+    public int getSubtaskCount() {
+        return subtasks.size();
+    }
+
+    public int getSubtaskCount(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Суммарная длительность подзадач.
+     */
+    public Duration getSubtasksDuration() {
+        return subtasksDuration;
+    }
+
+    /**
+     * Самое раннее время начала среди подзадач, у которых оно задано, либо null.
+     */
+    public LocalDateTime getEarliestSubtaskStart() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    private void add(Contribution contribution) {
+        statusCounts[contribution.status.ordinal()]++;
+        subtasksDuration = subtasksDuration.plus(contribution.duration);
+        if (contribution.startTime != null) {
+            startTimes.merge(contribution.startTime, 1, Integer::sum);
+        }
+    }
+
+    private void subtract(Contribution contribution) {
+        statusCounts[contribution.status.ordinal()]--;
+        subtasksDuration = subtasksDuration.minus(contribution.duration);
+        if (contribution.startTime != null) {
+            startTimes.computeIfPresent(contribution.startTime, (start, count) -> count == 1 ? null : count - 1);
+        }
     }
 
     @Override
@@ -57,7 +165,7 @@ public class Epic extends Task {
                 ", startTime=" + getStartTime() +
                 ", duration=" + getDuration() +
                 ", endTime=" + getEndTime() +
-                ", subtasks=" + subtasks +
+                ", subtasks=" + getSubtasks() +
                 '}';
     }
 }
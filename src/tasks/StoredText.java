@@ -0,0 +1,37 @@
+package tasks;
+
+/**
+ * Ссылка на текст, оставшийся в файле: источник, позиция и длина в байтах UTF-8.
+ * Занимает в памяти несколько десятков байт независимо от длины текста.
+ */
+public final class StoredText {
+    private final TextSource source;
+    private final long position;
+    private final int length;
+
+    public StoredText(TextSource source, long position, int length) {
+        this.source = source;
+        this.position = position;
+        this.length = length;
+    }
+
+    public String load() {
+        return source.read(position, length);
+    }
+
+    public byte[] bytes() {
+        return source.readBytes(position, length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Отметка о тексте на диске; сам текст не читается.
+     */
+    @Override
+    public String toString() {
+        return "<на диске, " + length + " байт>";
+    }
+}
@@ -55,7 +55,7 @@ public class Subtask extends Task {
         return "Subtask{" +
                 "id=" + getId() +
                 ", title='" + getTitle() + '\'' +
-                ", description='" + getDescription() + '\'' +
+                ", description='" + describeDescription() + '\'' +
                 ", status=" + getStatus() +
                 ", epicId=" + epicId +
                 ", startTime=" + getStartTime() +
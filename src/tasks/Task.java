@@ -8,6 +8,8 @@ public class Task {
     private int id;
     private String title;
     private String description;
+    // Описание, оставленное на диске; null, если описание в памяти
+    private StoredText storedDescription;
     private Status status;
     private Duration duration;
     private LocalDateTime startTime;
@@ -60,12 +62,41 @@ public class Task {
         this.title = title;
     }
 
+    /**
+     * Описание задачи. Если оно осталось на диске ({@link #setStoredDescription}), читается оттуда при каждом
+     * обращении — повторные обращения обслуживает кэш источника.
+     */
     public String getDescription() {
-        return description;
+        StoredText stored = storedDescription;
+        return stored != null ? stored.load() : description;
     }
 
     public void setDescription(String description) {
         this.description = description;
+        this.storedDescription = null;
+    }
+
+    /**
+     * Описание для toString: текст из памяти или отметка об описании на диске, без чтения файла.
+     */
+    String describeDescription() {
+        StoredText stored = storedDescription;
+        return stored != null ? stored.toString() : description;
+    }
+
+    /**
+     * Ссылка на описание на диске или null, если описание хранится в памяти.
+     */
+    public StoredText getStoredDescription() {
+        return storedDescription;
+    }
+
+    /**
+     * Оставляет описание на диске: в памяти хранится только ссылка на него.
+     */
+    public void setStoredDescription(StoredText storedDescription) {
+        this.description = null;
+        this.storedDescription = storedDescription;
     }
 
     public Status getStatus() {
@@ -116,7 +147,7 @@ public class Task {
         return "Task{" +
                 "id=" + id +
                 ", title='" + title + '\'' +
-                ", description='" + description + '\'' +
+                ", description='" + describeDescription() + '\'' +
                 ", status=" + status +
                 ", duration=" + duration +
                 ", startTime=" + startTime +
@@ -0,0 +1,571 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый разбор задач из JSON, записанного {@link TaskJsonWriter}, без дерева и рефлексии.
+ * Текст читается в собственный буфер порциями; имена полей, enum, числа и даты разбираются прямо в буфере,
+ * строки создаются только для title и description. Поля могут идти в любом порядке, неизвестные пропускаются.
+ * Отсутствующие поля получают значения по умолчанию: id 0, статус NEW, без времени начала, нулевая длительность.
+ * endTime учитывается только у эпика — у задачи и подзадачи он вычисляется из startTime и duration.
+ * Ошибки формата выбрасываются как IllegalArgumentException с позицией в тексте.
+ */
+public final class TaskJsonReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    // Начало разбираемого фрагмента, который должен остаться в буфере при подкачке; -1 — такого нет
+    private int mark = -1;
+    // Сколько символов отброшено из буфера при подкачке, для позиции в сообщениях об ошибках
+    private long consumed;
+
+    /**
+     * Разбор из Reader; он закрывается вместе с этим объектом.
+     */
+    public TaskJsonReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    public TaskJsonReader(String json) {
+        this.reader = null;
+        this.buffer = json.toCharArray();
+        this.limit = buffer.length;
+    }
+
+    /**
+     * Разбирает одну задачу; тип берётся из поля type.
+     */
+    public static Task parse(String json) {
+        return parse(json, null);
+    }
+
+    /**
+     * Разбирает одну задачу.
+     * @param type тип задачи, если в JSON нет поля type; null — поле обязательно
+     */
+    public static Task parse(String json, TaskType type) {
+        TaskJsonReader reader = new TaskJsonReader(json);
+        Task task = reader.readTask(type);
+        reader.expectEnd();
+        return task;
+    }
+
+    /**
+     * Читает массив задач и передаёт их обработчику по одной, не держа в памяти весь массив.
+     * Тип каждой задачи берётся из поля type.
+     */
+    public void readArray(Consumer<Task> consumer) {
+        expect('[');
+        if (tryConsume(']')) {
+            return;
+        }
+        do {
+            consumer.accept(readTask(null));
+        } while (tryConsume(','));
+        expect(']');
+    }
+
+    /**
+     * Читает одну задачу.
+     * @param defaultType тип задачи, если в JSON нет поля type; null — поле обязательно
+     */
+    public Task readTask(TaskType defaultType) {
+        TaskType type = defaultType;
+        int id = 0;
+        String title = null;
+        String description = null;
+        Status status = null;
+        LocalDateTime startTime = null;
+        Duration duration = null;
+        LocalDateTime endTime = null;
+        int epicId = 0;
+
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                Field field = readFieldName();
+                expect(':');
+                if (field == Field.UNKNOWN) {
+                    skipValue();
+                } else if (tryNull()) {
+                    if (field == Field.TYPE) {
+                        type = defaultType;
+                    }
+                } else {
+                    switch (field) {
+                        case ID -> id = readInt();
+                        case TYPE -> type = readEnum(TYPES);
+                        case TITLE -> title = readString();
+                        case DESCRIPTION -> description = readString();
+                        case STATUS -> status = readEnum(STATUSES);
+                        case START_TIME -> startTime = readDateTime();
+                        case DURATION -> duration = readDuration();
+                        case END_TIME -> endTime = readDateTime();
+                        case EPIC_ID -> epicId = readInt();
+                        default -> skipValue();
+                    }
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+        if (type == null) {
+            throw error("нет поля type");
+        }
+
+        return switch (type) {
+            case TASK -> new Task(id, title, description, status, startTime, duration);
+            case EPIC -> new Epic(id, title, description, status, startTime, duration, endTime);
+            case SUBTASK -> new Subtask(id, title, description, status, epicId, startTime, duration,
+                    startTime == null ? null : startTime.plus(duration == null ? Duration.ZERO : duration));
+        };
+    }
+
+    /**
+     * Проверяет, что после разобранного значения остались только пробельные символы.
+     */
+    public void expectEnd() {
+        if (peek() >= 0) {
+            throw error("лишние символы после значения");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private enum Field {
+        ID("id"),
+        TYPE("type"),
+        TITLE("title"),
+        DESCRIPTION("description"),
+        STATUS("status"),
+        START_TIME("startTime"),
+        DURATION("duration"),
+        END_TIME("endTime"),
+        EPIC_ID("epicId"),
+        UNKNOWN("");
+
+        private static final Field[] KNOWN = {ID, TYPE, TITLE, DESCRIPTION, STATUS, START_TIME, DURATION, END_TIME, EPIC_ID};
+
+        private final String json;
+
+        Field(String json) {
+            this.json = json;
+        }
+    }
+
+    /**
+     * Читает имя поля и сравнивает его с известными прямо в буфере, не создавая строку.
+     */
+    private Field readFieldName() {
+        int start = stringBody();
+        int length = position - start;
+        Field result = Field.UNKNOWN;
+        for (Field field : Field.KNOWN) {
+            if (regionEquals(start, length, field.json)) {
+                result = field;
+                break;
+            }
+        }
+        position++;
+        mark = -1;
+        return result;
+    }
+
+    private <E extends Enum<E>> E readEnum(E[] values) {
+        int start = stringBody();
+        int length = position - start;
+        for (E value : values) {
+            if (regionEquals(start, length, value.name())) {
+                position++;
+                mark = -1;
+                return value;
+            }
+        }
+        String name = new String(buffer, start, length);
+        throw error("неизвестное значение '" + name + "'");
+    }
+
+    private LocalDateTime readDateTime() {
+        int start = stringBody();
+        int end = position;
+        position++;
+        mark = -1;
+        try {
+            LocalDateTime parsed = parseIsoDateTime(start, end);
+            return parsed != null ? parsed : LocalDateTime.parse(new String(buffer, start, end - start));
+        } catch (DateTimeException e) {
+            throw error("некорректная дата '" + new String(buffer, start, end - start) + "'");
+        }
+    }
+
+    private String readString() {
+        expectQuote();
+        mark = position;
+        if (scanString() == '"') {
+            String value = new String(buffer, mark, position - mark);
+            position++;
+            mark = -1;
+            return value;
+        }
+        // Строка с экранированием собирается по символам, начиная с уже просмотренного отрезка
+        StringBuilder value = new StringBuilder(position - mark + 16);
+        value.append(buffer, mark, position - mark);
+        mark = -1;
+        while (true) {
+            int c = next();
+            if (c < 0) {
+                throw error("незакрытая строка");
+            }
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append((char) c);
+                continue;
+            }
+            int escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append((char) escaped);
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit < 0) {
+                            throw error("некорректная escape-последовательность");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    value.append((char) code);
+                }
+                default -> throw error("некорректная escape-последовательность");
+            }
+        }
+    }
+
+    /**
+     * Проходит строку без escape-последовательностей, оставляя её в буфере.
+     * Возвращает начало содержимого; position указывает на закрывающую кавычку, mark удерживает строку в буфере.
+     */
+    private int stringBody() {
+        expectQuote();
+        mark = position;
+        if (scanString() == '\\') {
+            throw error("escape-последовательность в имени или значении перечисления");
+        }
+        return mark;
+    }
+
+    /**
+     * Сдвигает позицию до ближайшей кавычки или обратной косой черты и возвращает найденный символ.
+     * Просмотр идёт по локальным копиям буфера и границы, поля обновляются только при подкачке.
+     */
+    private char scanString() {
+        while (true) {
+            char[] chars = buffer;
+            int end = limit;
+            for (int i = position; i < end; i++) {
+                char c = chars[i];
+                if (c == '"' || c == '\\') {
+                    position = i;
+                    return c;
+                }
+            }
+            position = end;
+            if (!fill()) {
+                throw error("незакрытая строка");
+            }
+        }
+    }
+
+    private Duration readDuration() {
+        long minutes = readLong();
+        if (minutes < 0) {
+            // Конец раньше начала нарушил бы расписание
+            throw error("отрицательная длительность");
+        }
+        try {
+            return Duration.ofMinutes(minutes);
+        } catch (ArithmeticException e) {
+            throw error("слишком большая длительность");
+        }
+    }
+
+    private int readInt() {
+        long value = readLong();
+        if (value != (int) value) {
+            throw error("слишком большое число");
+        }
+        return (int) value;
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        boolean negative = false;
+        if (position < limit || fill()) {
+            if (buffer[position] == '-') {
+                negative = true;
+                position++;
+            }
+        }
+        long value = 0;
+        int digits = 0;
+        while (position < limit || fill()) {
+            int digit = buffer[position] - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw error("слишком большое число");
+            }
+            value = value * 10 + digit;
+            digits++;
+            position++;
+        }
+        if (digits == 0) {
+            throw error("ожидалось целое число");
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Пропускает значение неизвестного поля любого вида, включая вложенные объекты и массивы.
+     * Вложенность обходится без рекурсии: закрывающие скобки открытых значений лежат в стеке в куче,
+     * поэтому глубоко вложенное тело не переполнит стек потока.
+     */
+    private void skipValue() {
+        StringBuilder open = new StringBuilder();
+        while (true) {
+            int c = peek();
+            if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                position++;
+                if (!tryConsume(close)) {
+                    open.append(close);
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    continue;
+                }
+            } else if (c == '"') {
+                readString();
+            } else if (c >= 0) {
+                // Число, true, false или null
+                int skipped = 0;
+                while ((position < limit || fill()) && ",}] \t\r\n".indexOf(buffer[position]) < 0) {
+                    position++;
+                    skipped++;
+                }
+                if (skipped == 0) {
+                    throw error("ожидалось значение");
+                }
+            } else {
+                throw error("ожидалось значение");
+            }
+            // Значение прочитано: дальше либо следующий элемент, либо конец открытых значений
+            while (open.length() > 0) {
+                char close = open.charAt(open.length() - 1);
+                if (tryConsume(',')) {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    break;
+                }
+                expect(close);
+                open.setLength(open.length() - 1);
+            }
+            if (open.length() == 0) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryNull() {
+        if (peek() != 'n') {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (next() != "null".charAt(i)) {
+                throw error("ожидалось значение");
+            }
+        }
+        return true;
+    }
+
+    private void expectQuote() {
+        if (peek() != '"') {
+            throw error("ожидалась строка");
+        }
+        position++;
+    }
+
+    private void expect(char expected) {
+        if (!tryConsume(expected)) {
+            throw error("ожидался '" + expected + "'");
+        }
+    }
+
+    private boolean tryConsume(char expected) {
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Следующий значимый символ без сдвига позиции; -1 в конце текста.
+     */
+    private int peek() {
+        skipWhitespace();
+        return position < limit ? buffer[position] : -1;
+    }
+
+    private int next() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private void skipWhitespace() {
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private boolean regionEquals(int start, int length, String expected) {
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Подкачивает следующую порцию текста. Прочитанное отбрасывается, кроме фрагмента от mark;
+     * если он занимает весь буфер, буфер растёт. Возвращает false в конце текста.
+     */
+    private boolean fill() {
+        if (reader == null) {
+            return false;
+        }
+        int keep = mark >= 0 ? mark : position;
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            consumed += keep;
+            limit -= keep;
+            position -= keep;
+            if (mark >= 0) {
+                mark = 0;
+            }
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        try {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read <= 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Быстрый разбор вида yyyy-MM-ddTHH:mm[:ss[.n...]], который выдаёт LocalDateTime.toString().
+     * Для всего остального возвращает null, и значение разбирается стандартным парсером.
+     */
+    private LocalDateTime parseIsoDateTime(int start, int end) {
+        int length = end - start;
+        if (length < 16 || buffer[start + 4] != '-' || buffer[start + 7] != '-'
+                || buffer[start + 10] != 'T' || buffer[start + 13] != ':') {
+            return null;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || buffer[start + 16] != ':') {
+                return null;
+            }
+            second = digits(start + 17, 2);
+            if (length > 19) {
+                int fraction = length - 20;
+                if (buffer[start + 19] != '.' || fraction < 1 || fraction > 9) {
+                    return null;
+                }
+                nano = digits(start + 20, fraction);
+                for (int i = fraction; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Разбирает count десятичных цифр начиная с позиции from; -1, если встретилась не цифра.
+     */
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Некорректный JSON в позиции " + (consumed + position) + ": " + message);
+    }
+}
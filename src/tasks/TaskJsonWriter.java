@@ -0,0 +1,415 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Потоковая запись задач в JSON без рефлексии и промежуточных строк.
+ * Символы копятся в собственном буфере и сбрасываются в Writer, StringBuilder или ByteBuffer (в UTF-8).
+ * Числа и даты пишутся в буфер по цифрам, без toString; время — в виде LocalDateTime.toString(),
+ * длительность — целым числом минут.
+ * <pre>
+ * {"id":1,"type":"SUBTASK","title":"...","description":"...","status":"NEW",
+ *  "startTime":"2025-10-06T09:00","duration":30,"endTime":"2025-10-06T09:30","epicId":2}
+ * </pre>
+ * У эпика вместо epicId пишется массив subtaskIds. Разбирает этот формат {@link TaskJsonReader}.
+ */
+public final class TaskJsonWriter implements Flushable, Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    // Самый длинный неделимый фрагмент: число, дата или экранированный символ
+    private static final int MAX_CHUNK = 40;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+    private final StringBuilder builder;
+    private final ByteBuffer bytes;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    // Старшая половина суррогатной пары, отложенная до следующего сброса в ByteBuffer
+    private char pendingHighSurrogate;
+    // Сколько задач уже записано в открытый массив; -1 — массив не открыт
+    private int arrayElements = -1;
+
+    /**
+     * Запись в Writer; он закрывается вместе с этим объектом.
+     */
+    public TaskJsonWriter(Writer writer) {
+        this(writer, null, null);
+    }
+
+    public TaskJsonWriter(StringBuilder builder) {
+        this(null, builder, null);
+    }
+
+    /**
+     * Запись в UTF-8 прямо в буфер; если места не хватит, сброс выбросит BufferOverflowException.
+     */
+    public TaskJsonWriter(ByteBuffer bytes) {
+        this(null, null, bytes);
+    }
+
+    private TaskJsonWriter(Writer writer, StringBuilder builder, ByteBuffer bytes) {
+        this.writer = writer;
+        this.builder = builder;
+        this.bytes = bytes;
+    }
+
+    public static String toJson(Task task) {
+        StringBuilder json = new StringBuilder(192);
+        try (TaskJsonWriter writer = new TaskJsonWriter(json)) {
+            writer.write(task);
+        }
+        return json.toString();
+    }
+
+    public static String toJson(Collection<? extends Task> tasks) {
+        StringBuilder json = new StringBuilder(tasks.size() * 192 + 2);
+        try (TaskJsonWriter writer = new TaskJsonWriter(json)) {
+            writer.writeArray(tasks);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Строковый литерал JSON с кавычками и экранированием; null превращается в null.
+     */
+    public static String quote(String value) {
+        StringBuilder json = new StringBuilder(value == null ? 4 : value.length() + 2);
+        try (TaskJsonWriter writer = new TaskJsonWriter(json)) {
+            writer.string(value);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Записывает задачу; между вызовами beginArray и endArray задачи разделяются запятыми.
+     */
+    public void write(Task task) {
+        if (arrayElements > 0) {
+            ensure(1);
+            buffer[position++] = ',';
+        }
+        if (arrayElements >= 0) {
+            arrayElements++;
+        }
+        raw("{\"id\":");
+        number(task.getId());
+        raw(",\"type\":\"");
+        raw(task.getType().name());
+        raw("\",\"title\":");
+        string(task.getTitle());
+        raw(",\"description\":");
+        string(task.getDescription());
+        raw(",\"status\":");
+        if (task.getStatus() == null) {
+            raw("null");
+        } else {
+            raw("\"");
+            raw(task.getStatus().name());
+            raw("\"");
+        }
+        raw(",\"startTime\":");
+        dateTime(task.getStartTime());
+        raw(",\"duration\":");
+        Duration duration = task.getDuration();
+        if (duration == null) {
+            raw("null");
+        } else {
+            number(duration.toMinutes());
+        }
+        raw(",\"endTime\":");
+        dateTime(task.getEndTime());
+        if (task instanceof Subtask subtask) {
+            raw(",\"epicId\":");
+            number(subtask.getEpicId());
+        } else if (task instanceof Epic epic) {
+            raw(",\"subtaskIds\":[");
+            boolean first = true;
+            for (Subtask subtask : epic.getSubtasks()) {
+                if (!first) {
+                    raw(",");
+                }
+                number(subtask.getId());
+                first = false;
+            }
+            raw("]");
+        }
+        raw("}");
+    }
+
+    public void beginArray() {
+        raw("[");
+        arrayElements = 0;
+    }
+
+    public void endArray() {
+        raw("]");
+        arrayElements = -1;
+    }
+
+    public void writeArray(Collection<? extends Task> tasks) {
+        beginArray();
+        for (Task task : tasks) {
+            write(task);
+        }
+        endArray();
+    }
+
+    /**
+     * Перевод строки между элементами, чтобы в файле была одна задача на строку; на разбор не влияет.
+     */
+    public void newLine() {
+        raw("\n");
+    }
+
+    @Override
+    public void flush() {
+        drain();
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        drain();
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            bytes.put((byte) '?');
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Пишет короткий фрагмент без экранирования: разметку, имя поля или значения enum.
+     */
+    private void raw(String value) {
+        int length = value.length();
+        ensure(length);
+        value.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    private void string(String value) {
+        if (value == null) {
+            raw("null");
+            return;
+        }
+        ensure(1);
+        buffer[position++] = '"';
+        int length = value.length();
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            // Отрезок без спецсимволов копируется целиком
+            chars(value, from, i);
+            from = i + 1;
+            ensure(6);
+            buffer[position++] = '\\';
+            switch (c) {
+                case '"', '\\' -> buffer[position++] = c;
+                case '\n' -> buffer[position++] = 'n';
+                case '\r' -> buffer[position++] = 'r';
+                case '\t' -> buffer[position++] = 't';
+                default -> {
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX[c >> 4];
+                    buffer[position++] = HEX[c & 15];
+                }
+            }
+        }
+        chars(value, from, length);
+        ensure(1);
+        buffer[position++] = '"';
+    }
+
+    private void chars(String value, int from, int to) {
+        while (from < to) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int count = Math.min(to - from, buffer.length - position);
+            value.getChars(from, from + count, buffer, position);
+            position += count;
+            from += count;
+        }
+    }
+
+    private void number(long value) {
+        ensure(MAX_CHUNK);
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                raw(Long.toString(value));
+                return;
+            }
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Пишет время в том же виде, что LocalDateTime.toString(): секунды и доли опускаются, если они нулевые.
+     */
+    private void dateTime(LocalDateTime time) {
+        if (time == null) {
+            raw("null");
+            return;
+        }
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            // Годы вне четырёх цифр пишутся со знаком, это редкий случай
+            raw("\"");
+            raw(time.toString());
+            raw("\"");
+            return;
+        }
+        ensure(MAX_CHUNK);
+        buffer[position++] = '"';
+        digits(year, 4);
+        buffer[position++] = '-';
+        digits(time.getMonthValue(), 2);
+        buffer[position++] = '-';
+        digits(time.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        digits(time.getHour(), 2);
+        buffer[position++] = ':';
+        digits(time.getMinute(), 2);
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second > 0 || nano > 0) {
+            buffer[position++] = ':';
+            digits(second, 2);
+            if (nano > 0) {
+                buffer[position++] = '.';
+                if (nano % 1000_000 == 0) {
+                    digits(nano / 1000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    digits(nano / 1000, 6);
+                } else {
+                    digits(nano, 9);
+                }
+            }
+        }
+        buffer[position++] = '"';
+    }
+
+    private void digits(int value, int count) {
+        for (int i = position + count - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position += count;
+    }
+
+    private void ensure(int count) {
+        if (position + count > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (position == 0) {
+            return;
+        }
+        if (builder != null) {
+            builder.append(buffer, 0, position);
+        } else if (writer != null) {
+            try {
+                writer.write(buffer, 0, position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            encode();
+        }
+        position = 0;
+    }
+
+    /**
+     * Кодирует буфер в UTF-8 прямо в ByteBuffer.
+     */
+    private void encode() {
+        int i = 0;
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            i = encodeSurrogate(high, buffer[0], 0) + 1;
+        }
+        for (; i < position; i++) {
+            char c = buffer[i];
+            if (c < 0x80) {
+                bytes.put((byte) c);
+            } else if (c < 0x800) {
+                bytes.put((byte) (0xC0 | c >> 6));
+                bytes.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 == position) {
+                    pendingHighSurrogate = c;
+                } else {
+                    i = encodeSurrogate(c, buffer[i + 1], i + 1);
+                }
+            } else {
+                putThreeBytes(c);
+            }
+        }
+    }
+
+    /**
+     * Кодирует суррогатную пару четырьмя байтами и возвращает индекс последнего использованного символа;
+     * непарная половина заменяется на '?', как это делает String.getBytes.
+     */
+    private int encodeSurrogate(char high, char low, int lowIndex) {
+        if (!Character.isLowSurrogate(low)) {
+            bytes.put((byte) '?');
+            return lowIndex - 1;
+        }
+        int codePoint = Character.toCodePoint(high, low);
+        bytes.put((byte) (0xF0 | codePoint >> 18));
+        bytes.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+        bytes.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+        bytes.put((byte) (0x80 | codePoint & 0x3F));
+        return lowIndex;
+    }
+
+    private void putThreeBytes(char c) {
+        if (Character.isLowSurrogate(c)) {
+            bytes.put((byte) '?');
+            return;
+        }
+        bytes.put((byte) (0xE0 | c >> 12));
+        bytes.put((byte) (0x80 | c >> 6 & 0x3F));
+        bytes.put((byte) (0x80 | c & 0x3F));
+    }
+}
@@ -0,0 +1,9 @@
+package tasks;
+
+public class TaskOverlapException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TaskOverlapException(String message) {
+        super(message);
+    }
+}
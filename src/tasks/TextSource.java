@@ -0,0 +1,17 @@
+package tasks;
+
+/**
+ * Место хранения текстов, которые не держатся в памяти: текст читается по позиции и длине в байтах UTF-8.
+ */
+public interface TextSource {
+
+    /**
+     * Текст, возможно, из кэша источника.
+     */
+    String read(long position, int length);
+
+    /**
+     * Байты UTF-8 текста в обход кэша — для переписывания текста без его разбора.
+     */
+    byte[] readBytes(long position, int length);
+}
@@ -0,0 +1,81 @@
+import manager.ArrayHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import manager.Managers;
+import manager.TaskManager;
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrayHistoryManagerTest {
+
+    private static Task task(int id) {
+        return new Task(id, "Task " + id, "Desc", Status.NEW, null, Duration.ZERO);
+    }
+
+    private static List<Integer> ids(List<Task> history) {
+        return history.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    public void testAddMovesRepeatedViewToEnd() {
+        ArrayHistoryManager history = new ArrayHistoryManager();
+        history.add(task(1));
+        history.add(task(2));
+        history.add(task(3));
+        history.add(task(1));
+
+        assertEquals(List.of(2, 3, 1), ids(history.getHistory()));
+        assertEquals(List.of(3, 1), ids(history.getHistory(2)));
+        history.remove(3);
+        assertEquals(List.of(2, 1), ids(history.getHistory()));
+        history.clear();
+        assertTrue(history.getHistory().isEmpty());
+    }
+
+    @Test
+    public void testOldestViewIsEvictedWhenFull() {
+        ArrayHistoryManager history = new ArrayHistoryManager(3);
+        for (int i = 1; i <= 5; i++) {
+            history.add(task(i));
+        }
+        assertEquals(List.of(3, 4, 5), ids(history.getHistory()));
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    public void testMatchesLinkedHistoryOnRandomOperations() {
+        // Одинаковая последовательность операций должна давать одинаковую историю
+        HistoryManager expected = new InMemoryHistoryManager(50);
+        HistoryManager actual = new ArrayHistoryManager(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(200) - 20;
+            if (random.nextInt(3) == 0) {
+                expected.remove(id);
+                actual.remove(id);
+            } else {
+                expected.add(task(id));
+                actual.add(task(id));
+            }
+        }
+        assertEquals(ids(expected.getHistory()), ids(actual.getHistory()));
+        assertEquals(ids(expected.getHistory(7)), ids(actual.getHistory(7)));
+    }
+
+    @Test
+    public void testSelectableViaManagers() {
+        TaskManager manager = Managers.getDefault(Managers.getArrayHistory(10));
+        int id = manager.addTask(new Task("Task", "Desc", Status.NEW));
+        manager.getTask(id);
+        assertEquals(List.of(id), ids(manager.getHistory()));
+        manager.removeTask(id);
+        assertTrue(manager.getHistory().isEmpty());
+    }
+}
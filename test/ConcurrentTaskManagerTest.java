@@ -0,0 +1,181 @@
+import manager.ConcurrentTaskManager;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskNotFoundException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 1000;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    public void testConcurrentAddsProduceUniqueIdsAndSortedSchedule() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Integer> ids = runConcurrently(thread -> {
+            List<Integer> threadIds = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                LocalDateTime start = base.plusHours((long) thread * OPERATIONS_PER_THREAD + i);
+                threadIds.add(manager.addTask(new Task("Task", "Desc", Status.NEW, start, Duration.ofMinutes(30))));
+            }
+            return threadIds;
+        });
+
+        Set<Integer> unique = new HashSet<>(ids);
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, unique.size(), "id не должны повторяться");
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, manager.getAllTasks().size());
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, prioritized.size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertTrue(prioritized.get(i - 1).getStartTime().isBefore(prioritized.get(i).getStartTime()),
+                    "Приоритетные задачи должны быть упорядочены по времени");
+        }
+    }
+
+    @Test
+    public void testOnlyOneTaskWinsContendedSlot() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2025, 1, 1, 9, 0);
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                manager.addTask(new Task("Task", "Desc", Status.NEW, slot.plusMinutes(i % 10), Duration.ofMinutes(15)));
+            }
+            return List.of();
+        });
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(1, prioritized.size(), "Пересекающиеся задачи не должны попасть в расписание");
+        for (Task task : manager.getAllTasks()) {
+            if (!prioritized.contains(task)) {
+                assertFalse(manager.getOverlappingTasks(task).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentSubtaskChangesAcrossEpics() throws Exception {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            epicIds.add(manager.addEpic(new Epic("Epic " + i, "Desc")));
+        }
+
+        List<Integer> subtaskIds = runConcurrently(thread -> {
+            List<Integer> created = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                // Потоки пишут в пересекающиеся эпики, чтобы проверить блокировки полос
+                int epicId = epicIds.get((thread + i) % epicIds.size());
+                int id = manager.addSubtask(new Subtask("Subtask", "Desc", Status.NEW, epicId));
+                created.add(id);
+                if (i % 3 == 0) {
+                    manager.updateSubtask(new Subtask(id, "Subtask", "Desc", Status.DONE, epicId, null, null, null));
+                }
+                if (i % 5 == 0) {
+                    manager.getSubtask(id);
+                    manager.removeSubtask(id);
+                }
+            }
+            return created;
+        });
+
+        int removed = 0;
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            if (i % 5 == 0) removed++;
+        }
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, new HashSet<>(subtaskIds).size());
+        assertEquals(THREADS * (OPERATIONS_PER_THREAD - removed), manager.getAllSubtasks().size());
+        assertTrue(manager.getHistory().isEmpty(), "Удалённые подзадачи не должны оставаться в истории");
+        for (Subtask subtask : manager.getAllSubtasks()) {
+            assertTrue(epicIds.contains(subtask.getEpicId()));
+        }
+        for (int epicId : epicIds) {
+            List<Subtask> epicSubtasks = manager.getEpicSubtasks(epicId);
+            long stored = manager.getAllSubtasks().stream().filter(s -> s.getEpicId() == epicId).count();
+            assertEquals(stored, epicSubtasks.size(), "Эпик должен видеть все свои подзадачи");
+            Epic epic = manager.getEpic(epicId);
+            long done = epicSubtasks.stream().filter(s -> s.getStatus() == Status.DONE).count();
+            assertEquals(done, epic.getSubtaskCount(Status.DONE), "Счётчики статусов не должны расходиться");
+        }
+    }
+
+    @Test
+    public void testUpdateDoesNotResurrectConcurrentlyRemovedTask() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            ids.add(manager.addTask(new Task("Task", "Desc", Status.NEW, base.plusHours(i), Duration.ofMinutes(15))));
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int id = ids.get(i);
+                if (thread == 0) {
+                    manager.removeTask(id);
+                    continue;
+                }
+                // Остальные потоки двигают ту же задачу, пока её не удалят
+                LocalDateTime start = base.plusHours(i).plusMinutes(thread);
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        manager.updateTask(new Task(id, "Task", "Desc", Status.IN_PROGRESS, start, Duration.ofMinutes(15)));
+                    }
+                } catch (TaskNotFoundException e) {
+                    // Задачу удалили
+                }
+            }
+            return List.of();
+        });
+
+        assertTrue(manager.getAllTasks().isEmpty(), "Обновление не должно возвращать удалённую задачу");
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Удалённые задачи не должны оставаться в расписании");
+    }
+
+    private interface ThreadBody {
+        List<Integer> run(int thread) throws Exception;
+    }
+
+    private List<Integer> runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<List<Integer>> callable = () -> {
+                    start.await();
+                    return body.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<Integer> result = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                result.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,17 +1,32 @@
 //package manager;
 
+import manager.BinarySnapshotFormat;
+import manager.CsvSnapshotFormat;
 import manager.FileBackedTaskManager;
+import manager.JsonSnapshotFormat;
+import manager.ManagerSaveException;
+import manager.SnapshotConverter;
+import manager.SnapshotFiles;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
 import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskNotFoundException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +55,13 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         if (tempFile.exists()) {
             tempFile.delete();
         }
+        File journal = new File(tempFile.getPath() + ".journal");
+        if (journal.exists()) {
+            journal.delete();
+        }
+        for (int i = 1; i <= 3; i++) {
+            SnapshotFiles.backupFile(tempFile, i).delete();
+        }
     }
 
     @Test
@@ -96,4 +118,416 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(task.getTitle(), loadedTask.getTitle(), "Задача должна быть восстановлена после перезапуска");
         assertEquals(task.getStatus(), loadedTask.getStatus());
     }
+
+    @Test
+    public void testJournalModeReplaysChangesOnLoad() {
+        FileBackedTaskManager journaled = FileBackedTaskManager.withJournal(tempFile, 100);
+        File journal = new File(tempFile.getPath() + ".journal");
+
+        Task task = new Task("Task", "Desc", Status.NEW,
+                LocalDateTime.of(2025, 10, 6, 9, 0), Duration.ofMinutes(30));
+        int taskId = journaled.addTask(task);
+        int epicId = journaled.addEpic(new Epic("Epic", "Desc"));
+        int subtaskId = journaled.addSubtask(new Subtask("Subtask", "Desc", Status.DONE, epicId));
+        journaled.updateTask(new Task(taskId, "Task updated", "Desc", Status.IN_PROGRESS,
+                LocalDateTime.of(2025, 10, 6, 11, 0), Duration.ofMinutes(30)));
+        int removedId = journaled.addTask(new Task("Removed", "Desc", Status.NEW));
+        journaled.removeTask(removedId);
+
+        assertEquals(0, tempFile.length(), "В режиме журнала снимок не должен перезаписываться");
+        assertTrue(journal.length() > 0, "Изменения должны попасть в журнал");
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.withJournal(tempFile, 100);
+        assertEquals("Task updated", reloaded.getTask(taskId).getTitle());
+        assertEquals(Status.IN_PROGRESS, reloaded.getTask(taskId).getStatus());
+        assertEquals(epicId, reloaded.getSubtask(subtaskId).getEpicId());
+        assertEquals(Status.DONE, reloaded.getEpic(epicId).getStatus());
+        assertThrows(TaskNotFoundException.class, () -> reloaded.getTask(removedId));
+        assertEquals(1, reloaded.getPrioritizedTasks().size());
+        assertEquals(removedId + 1, reloaded.addTask(new Task("Next", "Desc", Status.NEW)),
+                "Счётчик id должен учитывать записи журнала");
+    }
+
+    @Test
+    public void testJournalCompaction() {
+        FileBackedTaskManager journaled = FileBackedTaskManager.withJournal(tempFile, 3);
+        File journal = new File(tempFile.getPath() + ".journal");
+
+        journaled.addTask(new Task("Task 1", "Desc", Status.NEW));
+        journaled.addTask(new Task("Task 2", "Desc", Status.NEW));
+        assertTrue(journal.exists());
+        journaled.addTask(new Task("Task 3", "Desc", Status.NEW));
+
+        assertFalse(journal.exists(), "После сворачивания журнал должен быть очищен");
+        assertTrue(tempFile.length() > 0, "После сворачивания снимок должен быть записан");
+
+        journaled.addTask(new Task("Task 4", "Desc", Status.NEW));
+        journaled.close();
+        assertFalse(journal.exists(), "close() должен свернуть журнал в снимок");
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(4, reloaded.getAllTasks().size());
+    }
+
+    @Test
+    public void testBinarySnapshotRoundTripAndConversion() throws IOException {
+        File binaryFile = File.createTempFile("kanban", ".bin");
+        File convertedFile = File.createTempFile("kanban", ".csv");
+        try {
+            FileBackedTaskManager binary = new FileBackedTaskManager(binaryFile, new BinarySnapshotFormat());
+            LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0, 15, 500);
+            int taskId = binary.addTask(new Task("Задача", null, Status.IN_PROGRESS, start, Duration.ofMinutes(30)));
+            int epicId = binary.addEpic(new Epic("Epic", "Desc"));
+            int subtaskId = binary.addSubtask(new Subtask("Subtask", "Desc", Status.DONE, epicId,
+                    start.plusHours(1), Duration.ofMinutes(45)));
+
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(binaryFile, new BinarySnapshotFormat());
+            Task loadedTask = loaded.getTask(taskId);
+            assertEquals("Задача", loadedTask.getTitle());
+            assertNull(loadedTask.getDescription());
+            assertEquals(Status.IN_PROGRESS, loadedTask.getStatus());
+            assertEquals(start, loadedTask.getStartTime());
+            assertEquals(Duration.ofMinutes(30), loadedTask.getDuration());
+            assertEquals(epicId, loaded.getSubtask(subtaskId).getEpicId());
+            assertEquals(Status.DONE, loaded.getEpic(epicId).getStatus());
+            assertEquals(start.plusHours(1), loaded.getEpic(epicId).getStartTime());
+
+            SnapshotConverter.convert(binaryFile, new BinarySnapshotFormat(), convertedFile, new CsvSnapshotFormat());
+            FileBackedTaskManager fromCsv = FileBackedTaskManager.loadFromFile(convertedFile);
+            assertEquals(1, fromCsv.getAllTasks().size());
+            assertEquals(1, fromCsv.getAllEpics().size());
+            assertEquals(epicId, fromCsv.getSubtask(subtaskId).getEpicId());
+        } finally {
+            binaryFile.delete();
+            convertedFile.delete();
+        }
+    }
+
+    @Test
+    public void testCsvQuotesTextThatWouldBreakTheRecord() throws IOException {
+        List<String> texts = List.of("хлеб, молоко", "строка 1\nстрока 2\r\n", "\"цитата\"", "C:\\temp\\n",
+                "null", "", " с пробелами ", "обычный текст");
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        for (String text : texts) {
+            manager.addTask(new Task(text, text, Status.NEW));
+        }
+        int nullId = manager.addTask(new Task("Без описания", null, Status.NEW));
+        assertEquals(texts.size() + 2, Files.readAllLines(tempFile.toPath()).size(),
+                "Каждая задача занимает одну строку вместе с заголовком");
+
+        FileBackedTaskManager journaled = FileBackedTaskManager.withJournal(tempFile, 100);
+        int journaledId = journaled.addTask(new Task("из журнала, с запятой", "a\\b\n\"c\"", Status.DONE));
+
+        for (FileBackedTaskManager loaded : List.of(FileBackedTaskManager.loadFromFile(tempFile),
+                FileBackedTaskManager.withJournal(tempFile, 100))) {
+            List<Task> tasks = loaded.getAllTasks();
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(texts.get(i), tasks.get(i).getTitle());
+                assertEquals(texts.get(i), tasks.get(i).getDescription());
+            }
+            assertNull(loaded.getTask(nullId).getDescription(), "null и строка \"null\" различаются");
+        }
+        Task fromJournal = FileBackedTaskManager.withJournal(tempFile, 100).getTask(journaledId);
+        assertEquals("из журнала, с запятой", fromJournal.getTitle());
+        assertEquals("a\\b\n\"c\"", fromJournal.getDescription());
+    }
+
+    @Test
+    public void testJsonSnapshotKeepsCommasAndLineBreaks() throws IOException {
+        File jsonFile = File.createTempFile("kanban", ".json");
+        try {
+            FileBackedTaskManager json = new FileBackedTaskManager(jsonFile, new JsonSnapshotFormat());
+            LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0, 15, 500);
+            int taskId = json.addTask(new Task("Купить: хлеб, молоко", "строка 1\nстрока 2, \"цитата\" \uD83D\uDE00",
+                    Status.IN_PROGRESS, start, Duration.ofMinutes(30)));
+            int epicId = json.addEpic(new Epic("Epic", null));
+            int subtaskId = json.addSubtask(new Subtask("Subtask", "Desc", Status.DONE, epicId,
+                    start.plusHours(1), Duration.ofMinutes(45)));
+
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(jsonFile, new JsonSnapshotFormat());
+            Task loadedTask = loaded.getTask(taskId);
+            assertEquals("Купить: хлеб, молоко", loadedTask.getTitle());
+            assertEquals("строка 1\nстрока 2, \"цитата\" \uD83D\uDE00", loadedTask.getDescription());
+            assertEquals(start, loadedTask.getStartTime());
+            assertEquals(start.plusMinutes(30), loadedTask.getEndTime());
+            assertNull(loaded.getEpic(epicId).getDescription());
+            assertEquals(Status.DONE, loaded.getEpic(epicId).getStatus());
+            assertEquals(start.plusHours(1).plusMinutes(45), loaded.getSubtask(subtaskId).getEndTime());
+            assertEquals(List.of(loaded.getSubtask(subtaskId)), loaded.getEpicSubtasks(epicId));
+        } finally {
+            jsonFile.delete();
+        }
+    }
+
+    @Test
+    public void testSegmentsRewriteOnlyChangedSegment() throws IOException {
+        Path directory = Files.createTempDirectory("kanban-segments");
+        try {
+            FileBackedTaskManager segmented = FileBackedTaskManager.withSegments(directory.toFile(), new CsvSnapshotFormat(), 4);
+            for (int i = 0; i < 10; i++) {
+                segmented.addTask(new Task("Task " + i, "Desc", Status.NEW));
+            }
+            int epicId = segmented.addEpic(new Epic("Epic", "Desc"));
+            int subtaskId = segmented.addSubtask(new Subtask("Subtask", "Desc", Status.DONE, epicId));
+            // id 1..12 по 4 в сегменте: 000000 (1-3), 000001 (4-7), 000002 (8-11), 000003 (12)
+            Path first = directory.resolve("000000.seg");
+            Path second = directory.resolve("000001.seg");
+            Object firstKey = Files.readAttributes(first, BasicFileAttributes.class).fileKey();
+            Object secondKey = Files.readAttributes(second, BasicFileAttributes.class).fileKey();
+
+            Task updated = segmented.getTask(5);
+            updated.setTitle("Изменена");
+            segmented.updateTask(updated);
+            if (firstKey != null) {
+                assertEquals(firstKey, Files.readAttributes(first, BasicFileAttributes.class).fileKey(),
+                        "Сегмент без изменений не должен перезаписываться");
+                assertNotEquals(secondKey, Files.readAttributes(second, BasicFileAttributes.class).fileKey());
+            }
+
+            segmented.removeTask(1);
+            segmented.removeTask(2);
+            segmented.removeTask(3);
+            assertFalse(Files.exists(first), "Опустевший сегмент удаляется");
+
+            FileBackedTaskManager loaded = FileBackedTaskManager.withSegments(directory.toFile(), new CsvSnapshotFormat(), 4);
+            assertEquals(7, loaded.getAllTasks().size());
+            assertEquals("Изменена", loaded.getTask(5).getTitle());
+            assertEquals(Status.DONE, loaded.getEpic(epicId).getStatus());
+            assertEquals(List.of(loaded.getSubtask(subtaskId)), loaded.getEpicSubtasks(epicId));
+            assertEquals(13, loaded.addTask(new Task("Next", "Desc", Status.NEW)));
+
+            loaded.clearAll();
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count(), "После очистки сегментов не остаётся");
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(path -> path.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testLazyDescriptionsStayOnDiskUntilRead() throws IOException {
+        File binaryFile = File.createTempFile("kanban", ".bin");
+        try {
+            String longDescription = "Подробное описание задачи с ключевым словом компиляция ".repeat(5);
+            FileBackedTaskManager eager = new FileBackedTaskManager(binaryFile, new BinarySnapshotFormat());
+            int longId = eager.addTask(new Task("Длинная", longDescription, Status.NEW));
+            int shortId = eager.addTask(new Task("Короткая", "кратко", Status.NEW));
+            int epicId = eager.addEpic(new Epic("Эпик", longDescription));
+
+            FileBackedTaskManager lazy = FileBackedTaskManager.withLazyDescriptions(binaryFile, 1);
+            assertNotNull(lazy.getTask(longId).getStoredDescription(), "Длинное описание остаётся на диске");
+            assertNull(lazy.getTask(shortId).getStoredDescription(), "Короткое описание читается сразу");
+            assertEquals(longDescription, lazy.getTask(longId).getDescription());
+            assertEquals(longDescription, lazy.getEpic(epicId).getDescription());
+            assertEquals("кратко", lazy.getTask(shortId).getDescription());
+
+            // Сохранение заменяет файл, но описания читаются из прежней версии снимка
+            lazy.addTask(new Task("Новая", "Desc", Status.NEW));
+            assertEquals(longDescription, lazy.getTask(longId).getDescription());
+            assertEquals(List.of(lazy.getTask(longId), lazy.getEpic(epicId)), lazy.search("компиляц", 10),
+                    "Полнотекстовый индекс строится при первом поиске и видит описания с диска");
+            Task held = lazy.getTask(longId);
+            lazy.close();
+            assertTrue(held.toString().contains("<на диске, "), "toString не читает описание с диска");
+            assertThrows(ManagerSaveException.class, held::getDescription,
+                    "После закрытия менеджера описания на диске недоступны");
+
+            FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(binaryFile, new BinarySnapshotFormat());
+            assertEquals(longDescription, reloaded.getTask(longId).getDescription());
+            assertEquals(longDescription, reloaded.getEpic(epicId).getDescription());
+            assertEquals(3, reloaded.getAllTasks().size());
+        } finally {
+            binaryFile.delete();
+        }
+    }
+
+    @Test
+    public void testLazySegmentsReopenEvictedFilesAndReleaseRewrittenOnes() throws IOException {
+        Path directory = Files.createTempDirectory("kanban-lazy-segments");
+        try {
+            FileBackedTaskManager eager = FileBackedTaskManager.withSegments(directory.toFile(), new BinarySnapshotFormat(), 2);
+            for (int i = 1; i <= 10; i++) {
+                eager.addTask(new Task("Task " + i, "Длинное описание задачи номер " + i + " ".repeat(40), Status.NEW));
+            }
+
+            // Без кэша и с двумя открытыми файлами на шесть сегментов каждое чтение вытесняет чей-то канал
+            FileBackedTaskManager lazy = FileBackedTaskManager.withSegments(directory.toFile(),
+                    new BinarySnapshotFormat(0, 2), 2);
+            for (int round = 0; round < 2; round++) {
+                for (int id = 1; id <= 10; id++) {
+                    assertTrue(lazy.getTask(id).getDescription().startsWith("Длинное описание задачи номер " + id + " "));
+                }
+            }
+
+            // id 4 и 5 в одном сегменте: при его перезаписи описание соседней задачи переходит в память
+            Task updated = lazy.getTask(5);
+            updated.setTitle("Изменена");
+            lazy.updateTask(updated);
+            assertNull(lazy.getTask(4).getStoredDescription());
+            assertNotNull(lazy.getTask(6).getStoredDescription());
+            for (int id = 1; id <= 10; id++) {
+                assertTrue(lazy.getTask(id).getDescription().startsWith("Длинное описание задачи номер " + id + " "));
+            }
+            lazy.close();
+
+            FileBackedTaskManager reloaded = FileBackedTaskManager.withSegments(directory.toFile(), new BinarySnapshotFormat(), 2);
+            assertEquals("Изменена", reloaded.getTask(5).getTitle());
+            assertTrue(reloaded.getTask(4).getDescription().startsWith("Длинное описание задачи номер 4 "));
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(path -> path.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testLoadLinksSubtasksListedBeforeTheirEpic() throws IOException {
+        Files.writeString(tempFile.toPath(), String.join("\n",
+                "id,type,title,status,description,startTime,duration,endTime,epicId",
+                "3,SUBTASK,Subtask,DONE,Desc,2025-10-06T10:00,60,2025-10-06T11:00,2",
+                "1,TASK,Task,NEW,Desc,null,0,null",
+                "2,EPIC,Epic,NEW,Desc,null,0,null",
+                ""));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loaded.getEpicSubtasks(2).size(), "Подзадача должна быть привязана к эпику, описанному ниже");
+        assertEquals(Status.DONE, loaded.getEpic(2).getStatus());
+        assertEquals(LocalDateTime.of(2025, 10, 6, 10, 0), loaded.getEpic(2).getStartTime());
+        assertNull(loaded.getTask(1).getStartTime());
+        assertEquals(4, loaded.addTask(new Task("Next", "Desc", Status.NEW)));
+    }
+
+    @Test
+    public void testBatchPersistsOnceAtCommit() {
+        manager.runInBatch(batch -> {
+            for (int i = 0; i < 100; i++) {
+                batch.addTask(new Task("Task " + i, "Desc", Status.NEW));
+            }
+            assertEquals(0, tempFile.length(), "Внутри пакета файл не должен перезаписываться");
+        });
+        assertEquals(100, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size());
+    }
+
+    @Test
+    public void testFailedBatchIsNotJournaled() throws IOException {
+        FileBackedTaskManager journaled = FileBackedTaskManager.withJournal(tempFile, 1000);
+        File journal = new File(tempFile.getPath() + ".journal");
+
+        journaled.runInBatch(batch -> {
+            batch.addTask(new Task("Task 1", "Desc", Status.NEW));
+            batch.addTask(new Task("Task 2", "Desc", Status.NEW));
+        });
+        assertTrue(Files.readString(journal.toPath()).startsWith("BATCH,2"), "Пакет пишется в журнал одной группой");
+
+        long journalLength = journal.length();
+        assertThrows(IllegalStateException.class, () -> journaled.runInBatch(batch -> {
+            batch.addTask(new Task("Task 3", "Desc", Status.NEW));
+            throw new IllegalStateException("Сбой пакета");
+        }));
+        assertEquals(journalLength, journal.length(), "Откатанный пакет не должен попасть в журнал");
+
+        // Недописанный пакет в конце журнала отбрасывается целиком
+        Files.writeString(journal.toPath(), "BATCH,2\nPUT,9,TASK,Torn,NEW,Desc,null,0,null\n",
+                StandardOpenOption.APPEND);
+        FileBackedTaskManager reloaded = FileBackedTaskManager.withJournal(tempFile, 1000);
+        assertEquals(2, reloaded.getAllTasks().size());
+        assertFalse(journal.exists(), "После загрузки журнал сворачивается в снимок");
+    }
+
+    @Test
+    public void testTornLastJournalRecordIsSkipped() throws IOException {
+        FileBackedTaskManager journaled = FileBackedTaskManager.withJournal(tempFile, 100);
+        File journal = new File(tempFile.getPath() + ".journal");
+        int firstId = journaled.addTask(new Task("First", "Desc", Status.NEW,
+                LocalDateTime.of(2025, 10, 6, 9, 0), Duration.ofMinutes(30)));
+        journaled.addTask(new Task("Second", "Desc", Status.NEW,
+                LocalDateTime.of(2025, 10, 6, 11, 0), Duration.ofMinutes(30)));
+        byte[] records = Files.readAllBytes(journal.toPath());
+
+        // Сбой посреди дописывания: от последней записи остался обрывок без перевода строки
+        Files.write(journal.toPath(), Arrays.copyOf(records, records.length - 12));
+        FileBackedTaskManager reloaded = FileBackedTaskManager.withJournal(tempFile, 100);
+        assertEquals(List.of(firstId), reloaded.getAllTasks().stream().map(Task::getId).toList());
+        assertFalse(journal.exists(), "После загрузки журнал сворачивается в снимок");
+        reloaded.close();
+
+        // Обрыв внутри названия разбирается, но всё равно не должен попасть в данные
+        Files.write(tempFile.toPath(), new byte[0]);
+        int titleEnd = new String(records, StandardCharsets.UTF_8).lastIndexOf("Second") + 3;
+        Files.write(journal.toPath(), Arrays.copyOf(records, titleEnd));
+        assertEquals(1, FileBackedTaskManager.withJournal(tempFile, 100).getAllTasks().size());
+
+        // Целая последняя строка, которая не разбирается, тоже считается обрывом
+        Files.write(tempFile.toPath(), new byte[0]);
+        Files.write(journal.toPath(), records);
+        Files.writeString(journal.toPath(), "PUT,7,TASK,Broken,NEW,Desc,2025-10\n", StandardOpenOption.APPEND);
+        assertEquals(2, FileBackedTaskManager.withJournal(tempFile, 100).getAllTasks().size());
+    }
+
+    @Test
+    public void testWriteBehindFlushPersistsAllChanges() {
+        FileBackedTaskManager writeBehind = FileBackedTaskManager.withWriteBehind(tempFile, Duration.ofHours(1), 1_000_000);
+        for (int i = 0; i < 100; i++) {
+            writeBehind.addTask(new Task("Task " + i, "Desc", Status.NEW));
+        }
+        assertEquals(0, tempFile.length(), "Изменения не должны ждать записи на диск");
+
+        writeBehind.flush();
+        assertEquals(100, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size());
+
+        writeBehind.addTask(new Task("Last", "Desc", Status.NEW));
+        writeBehind.close();
+        assertEquals(101, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(),
+                "close() должен сохранить оставшиеся изменения");
+        assertThrows(IllegalStateException.class, () -> writeBehind.addTask(new Task("Closed", "Desc", Status.NEW)));
+        assertEquals(101, writeBehind.getAllTasks().size(), "Отклонённое изменение не должно попасть в память");
+    }
+
+    @Test
+    public void testWriteBehindConvergesWithoutFlush() throws InterruptedException {
+        FileBackedTaskManager writeBehind = FileBackedTaskManager.withWriteBehind(tempFile, Duration.ofMillis(20), 10);
+        for (int i = 0; i < 50; i++) {
+            writeBehind.addTask(new Task("Task " + i, "Desc", Status.NEW));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size() < 50
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(50, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(),
+                "Фоновый поток должен сам догнать изменения");
+        writeBehind.close();
+    }
+
+    @Test
+    public void testSaveKeepsRollingBackups() throws IOException {
+        manager.setBackupCount(2);
+        manager.addTask(new Task("Task 1", "Desc", Status.NEW));
+        manager.addTask(new Task("Task 2", "Desc", Status.NEW));
+        manager.addTask(new Task("Task 3", "Desc", Status.NEW));
+
+        assertFalse(new File(tempFile.getPath() + ".tmp").exists(), "Временный файл не должен оставаться после записи");
+        assertEquals(3, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size());
+        assertEquals(2, FileBackedTaskManager.loadFromFile(SnapshotFiles.backupFile(tempFile, 1)).getAllTasks().size());
+        assertEquals(1, FileBackedTaskManager.loadFromFile(SnapshotFiles.backupFile(tempFile, 2)).getAllTasks().size());
+        assertFalse(SnapshotFiles.backupFile(tempFile, 3).exists(), "Лишние копии должны удаляться");
+    }
+
+    @Test
+    public void testInterruptedSaveLeavesPreviousSnapshot() throws IOException {
+        manager.addTask(new Task("Task 1", "Desc", Status.NEW));
+        // Обрывок недописанного снимка от прерванного сохранения
+        File temp = new File(tempFile.getPath() + ".tmp");
+        Files.writeString(temp.toPath(), "id,type,name");
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(1, reloaded.getAllTasks().size());
+        assertFalse(temp.exists(), "Обрывок должен удаляться при загрузке");
+    }
 }
@@ -0,0 +1,125 @@
+import http.HttpTaskServer;
+import manager.Managers;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskManager manager;
+    private HttpTaskServer server;
+
+    @BeforeEach
+    public void startServer() {
+        manager = Managers.getConcurrent();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testTaskCrudOverHttp() throws IOException, InterruptedException {
+        HttpResponse<String> created = send("POST", "/tasks",
+                "{\"title\":\"Отчёт \\\"Q3\\\"\",\"description\":\"строка1\\nстрока2\",\"status\":\"NEW\","
+                        + "\"startTime\":\"2025-10-06T09:00\",\"duration\":30}");
+        assertEquals(201, created.statusCode());
+        Task stored = manager.getAllTasks().get(0);
+        assertEquals("Отчёт \"Q3\"", stored.getTitle());
+        assertEquals("строка1\nстрока2", stored.getDescription());
+        assertEquals(LocalDateTime.of(2025, 10, 6, 9, 30), stored.getEndTime());
+
+        HttpResponse<String> fetched = send("GET", "/tasks/" + stored.getId(), null);
+        assertEquals(200, fetched.statusCode());
+        Task parsed = TaskJsonReader.parse(fetched.body());
+        assertEquals(stored.getId(), parsed.getId());
+        assertEquals(stored.getTitle(), parsed.getTitle());
+        assertEquals(stored.getDescription(), parsed.getDescription());
+        assertEquals(Duration.ofMinutes(30), parsed.getDuration());
+
+        assertEquals(406, send("POST", "/tasks",
+                "{\"title\":\"Пересечение\",\"startTime\":\"2025-10-06T09:15\",\"duration\":10}").statusCode(),
+                "Пересекающаяся по времени задача не принимается");
+
+        assertEquals(200, send("POST", "/tasks/" + stored.getId(),
+                "{\"title\":\"Отчёт\",\"status\":\"DONE\"}").statusCode());
+        assertEquals(Status.DONE, manager.getTask(stored.getId()).getStatus());
+        assertEquals(1, manager.getHistory().size(), "GET по id записывает просмотр в историю");
+
+        assertEquals(200, send("DELETE", "/tasks/" + stored.getId(), null).statusCode());
+        assertEquals(404, send("GET", "/tasks/" + stored.getId(), null).statusCode());
+        assertEquals(400, send("GET", "/tasks/abc", null).statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"title\":").statusCode());
+        assertEquals(405, send("PUT", "/tasks", "{}").statusCode());
+    }
+
+    @Test
+    public void testEpicSubtasksAndPrioritizedOverHttp() throws IOException, InterruptedException {
+        assertEquals(201, send("POST", "/epics", "{\"title\":\"Переезд\",\"description\":\"\"}").statusCode());
+        int epicId = manager.getAllEpics().get(0).getId();
+        assertEquals(404, send("POST", "/subtasks", "{\"title\":\"Без эпика\",\"epicId\":" + (epicId + 100) + "}").statusCode());
+        assertEquals(201, send("POST", "/subtasks", "{\"title\":\"Коробки\",\"status\":\"DONE\",\"epicId\":" + epicId
+                + ",\"startTime\":\"2025-10-06T10:00\",\"duration\":60}").statusCode());
+
+        HttpResponse<String> subtasks = send("GET", "/epics/" + epicId + "/subtasks", null);
+        assertEquals(200, subtasks.statusCode());
+        assertTrue(subtasks.body().contains("\"title\":\"Коробки\""));
+        assertEquals(Status.DONE, manager.getAllEpics().get(0).getStatus());
+        assertTrue(manager.getHistory().isEmpty(), "Подзадачи эпика не записывают эпик в историю");
+        assertTrue(send("GET", "/prioritized", null).body().contains("\"startTime\":\"2025-10-06T10:00\""));
+
+        assertEquals(404, send("GET", "/epics/" + (epicId + 100) + "/subtasks", null).statusCode());
+        assertEquals(200, send("DELETE", "/epics", null).statusCode());
+        assertEquals("[]", send("GET", "/subtasks", null).body());
+    }
+
+    @Test
+    public void testConcurrentPostsForSameSlotAcceptOnlyOne() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"title\":\"Созвон " + i + "\",\"startTime\":\"2025-10-06T09:00\",\"duration\":30}"))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        int created = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int code = response.join().statusCode();
+            if (code == 201) {
+                created++;
+            } else {
+                assertEquals(406, code, "Проигравший запрос получает 406");
+            }
+        }
+        assertEquals(1, created, "Одно время может занять только один запрос");
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+}
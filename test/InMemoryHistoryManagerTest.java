@@ -1,10 +1,16 @@
 import manager.InMemoryHistoryManager;
 import manager.HistoryManager;
+import manager.SessionHistoryManager;
 import tasks.Status;
 import tasks.Task;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,4 +56,80 @@ public class InMemoryHistoryManagerTest {
 
         assertEquals(1, historyManager.getHistory().size());
     }
+
+    @Test
+    public void testBoundedHistoryEvictsOldest() {
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(3);
+        for (int i = 1; i <= 5; i++) {
+            bounded.add(new Task(i, "Task " + i, "Desc", Status.NEW, null, Duration.ZERO));
+        }
+        bounded.add(new Task(3, "Task 3", "Desc", Status.NEW, null, Duration.ZERO));
+
+        List<Task> history = bounded.getHistory();
+        assertEquals(3, history.size());
+        assertEquals(List.of(4, 5, 3), history.stream().map(Task::getId).toList());
+        assertTrue(bounded.estimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    public void testHistoryLimitReturnsMostRecent() {
+        for (int i = 1; i <= 10; i++) {
+            historyManager.add(new Task(i, "Task " + i, "Desc", Status.NEW, null, Duration.ZERO));
+        }
+        assertEquals(List.of(8, 9, 10), historyManager.getHistory(3).stream().map(Task::getId).toList());
+        assertEquals(10, historyManager.getHistory(100).size());
+        assertTrue(historyManager.getHistory(0).isEmpty());
+    }
+
+    @Test
+    public void testExpiredEntriesAreDropped() {
+        MutableClock clock = new MutableClock();
+        InMemoryHistoryManager expiring = new InMemoryHistoryManager(100, Duration.ofMinutes(10), clock);
+        expiring.add(new Task(1, "Task 1", "Desc", Status.NEW, null, Duration.ZERO));
+        clock.advance(Duration.ofMinutes(6));
+        expiring.add(new Task(2, "Task 2", "Desc", Status.NEW, null, Duration.ZERO));
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals(List.of(2), expiring.getHistory().stream().map(Task::getId).toList(),
+                "Запись старше времени жизни должна исчезнуть из истории");
+        assertEquals(1, expiring.size());
+    }
+
+    @Test
+    public void testIdleSessionsAreEvicted() {
+        MutableClock clock = new MutableClock();
+        SessionHistoryManager sessions = new SessionHistoryManager(10, Duration.ofMinutes(30), clock);
+        sessions.forSession("alice").add(new Task(1, "Task 1", "Desc", Status.NEW, null, Duration.ZERO));
+        clock.advance(Duration.ofMinutes(20));
+        sessions.forSession("bob").add(new Task(2, "Task 2", "Desc", Status.NEW, null, Duration.ZERO));
+        clock.advance(Duration.ofMinutes(20));
+
+        sessions.forSession("carol");
+        assertEquals(2, sessions.sessionCount(), "Простаивающая сессия должна быть удалена");
+        assertTrue(sessions.getHistory("alice").isEmpty());
+        assertEquals(1, sessions.getHistory("bob").size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
@@ -0,0 +1,70 @@
+import manager.ConcurrentIntObjectMap;
+import manager.IntObjectHashMap;
+import manager.IntObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    public void testMatchesHashMapOnRandomOperations() {
+        checkAgainstHashMap(new IntObjectHashMap<>());
+        checkAgainstHashMap(new ConcurrentIntObjectMap<>());
+    }
+
+    private void checkAgainstHashMap(IntObjectMap<String> map) {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Отрицательные ключи и ключи с одинаковыми младшими битами проверяют пробирование
+            int key = random.nextBoolean() ? random.nextInt(2000) - 1000 : random.nextInt(64) << 12;
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.remove(key), map.remove(key));
+                case 1 -> assertEquals(expected.get(key), map.get(key));
+                default -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected.size(), map.values().size());
+
+        // Копирующий конструктор читает и таблицу, и сегментированное отображение
+        IntObjectHashMap<String> copy = new IntObjectHashMap<>(map);
+        assertEquals(expected.size(), copy.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), copy.get(entry.getKey()));
+        }
+
+        expected.values().removeIf(value -> value.endsWith("7"));
+        map.removeIf(value -> value.endsWith("7"));
+        assertEquals(expected.size(), map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+    }
+
+    @Test
+    public void testSequentialKeysIterateInOrder() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i, i);
+        }
+        List<Integer> order = new ArrayList<>(map.values());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i + 1, order.get(i).intValue());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> map.values().removeIf(value -> true),
+                "Удаление через values() не поддерживается");
+    }
+}
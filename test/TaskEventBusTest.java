@@ -0,0 +1,79 @@
+import manager.TaskEvent;
+import manager.TaskEventBus;
+import manager.TaskEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskEventBusTest {
+
+    @Test
+    public void testSlowListenerLosesChangesInsteadOfBlockingWriter() throws InterruptedException {
+        TaskEventBus bus = new TaskEventBus();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<Object> delivered = new LinkedBlockingQueue<>();
+        TaskEventBus.Subscription subscription = bus.subscribe(new TaskEventListener() {
+            @Override
+            public void onEvents(List<TaskEvent> events) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(events);
+            }
+
+            @Override
+            public void onOverflow(int lostChanges) {
+                delivered.add(lostChanges);
+            }
+        }, 1, TaskEventBus.Overflow.DROP);
+
+        List<TaskEvent> first = new ArrayList<>();
+        List<TaskEvent> second = new ArrayList<>();
+        bus.publish(first);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        bus.publish(second);
+        bus.publish(new ArrayList<>());
+        bus.publish(new ArrayList<>());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Запись не должна ждать слушателя");
+
+        release.countDown();
+        assertSame(first, delivered.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, ((Integer) delivered.poll(5, TimeUnit.SECONDS)).intValue(),
+                "Слушатель узнаёт о потерянных изменениях до следующей доставки");
+        assertSame(second, delivered.poll(5, TimeUnit.SECONDS));
+
+        subscription.close();
+        assertFalse(bus.hasSubscribers());
+        bus.publish(new ArrayList<>());
+        assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFailingSyncListenerDoesNotStopDelivery() throws InterruptedException {
+        TaskEventBus bus = new TaskEventBus();
+        bus.subscribeSync(events -> {
+            throw new IllegalStateException("Диск недоступен");
+        });
+        BlockingQueue<List<TaskEvent>> delivered = new LinkedBlockingQueue<>();
+        bus.subscribe(delivered::add, 16, TaskEventBus.Overflow.BLOCK);
+
+        List<TaskEvent> events = new ArrayList<>();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bus.publish(events));
+        assertEquals("Диск недоступен", e.getMessage(), "Ошибка синхронного слушателя выбрасывается вызывающему");
+        assertSame(events, delivered.poll(5, TimeUnit.SECONDS),
+                "Асинхронный подписчик получает изменение, даже если синхронный упал");
+    }
+}
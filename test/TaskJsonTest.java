@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+import tasks.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskJsonTest {
+
+    @Test
+    public void testByteBufferOutputIsUtf8AndMatchesTextOutput() {
+        Task task = new Task(7, "Эмодзи 😀 и \\ слеш", "таб\tи\u0001", Status.NEW,
+                LocalDateTime.of(2025, 1, 2, 3, 4, 5, 120_000_000), Duration.ofMinutes(90));
+        String text = TaskJsonWriter.toJson(task);
+        assertTrue(text.contains("\"startTime\":\"2025-01-02T03:04:05.120\""), "Время пишется как LocalDateTime.toString()");
+        assertTrue(text.contains("\"duration\":90"), "Длительность пишется в минутах");
+
+        ByteBuffer bytes = ByteBuffer.allocate(1024);
+        try (TaskJsonWriter writer = new TaskJsonWriter(bytes)) {
+            writer.write(task);
+        }
+        assertEquals(text, new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8));
+
+        Task parsed = TaskJsonReader.parse(text);
+        assertEquals(task.getTitle(), parsed.getTitle());
+        assertEquals(task.getDescription(), parsed.getDescription());
+        assertEquals(task.getStartTime(), parsed.getStartTime());
+        assertEquals(task.getEndTime(), parsed.getEndTime());
+    }
+
+    @Test
+    public void testStreamingReadOfArrayLongerThanBuffer() {
+        String longDescription = "описание ".repeat(3000);
+        List<Task> written = new ArrayList<>();
+        StringWriter out = new StringWriter();
+        try (TaskJsonWriter writer = new TaskJsonWriter(out)) {
+            writer.beginArray();
+            for (int i = 1; i <= 50; i++) {
+                Subtask subtask = new Subtask("Подзадача " + i, i % 10 == 0 ? longDescription : "d" + i,
+                        Status.NEW, 1000 + i, LocalDateTime.of(2025, 3, 1, 0, 0).plusHours(i), Duration.ofMinutes(i));
+                subtask.setId(i);
+                written.add(subtask);
+                writer.newLine();
+                writer.write(subtask);
+            }
+            writer.endArray();
+        }
+
+        List<Task> read = new ArrayList<>();
+        try (TaskJsonReader reader = new TaskJsonReader(new StringReader(out.toString()))) {
+            reader.readArray(read::add);
+            reader.expectEnd();
+        }
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            Subtask expected = (Subtask) written.get(i);
+            Subtask actual = (Subtask) read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getEpicId(), actual.getEpicId());
+            assertEquals(expected.getEndTime(), actual.getEndTime());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> TaskJsonReader.parse("{\"id\":1,\"title\":\"x\"}"),
+                "Без поля type и типа по умолчанию задача не разбирается");
+        assertThrows(IllegalArgumentException.class, () -> TaskJsonReader.parse("{\"startTime\":\"2025-13-01T00:00\"}", TaskType.TASK));
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkippedWithoutRecursion() {
+        Task task = TaskJsonReader.parse("{\"title\":\"x\",\"extra\":{\"a\":[1,{\"b\":\"]}\"},[]],\"c\":{}},"
+                + "\"more\":[true,null,-1.5e3],\"duration\":15}", TaskType.TASK);
+        assertEquals("x", task.getTitle());
+        assertEquals(Duration.ofMinutes(15), task.getDuration());
+
+        String deep = "{\"x\":" + "[".repeat(100_000) + "]".repeat(100_000) + ",\"title\":\"deep\"}";
+        assertEquals("deep", TaskJsonReader.parse(deep, TaskType.TASK).getTitle(),
+                "Глубокая вложенность не должна переполнять стек");
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskJsonReader.parse("{\"x\":" + "[".repeat(100_000), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskJsonReader.parse("{\"x\":[1}", TaskType.TASK), "Скобки должны закрываться по порядку");
+
+        assertThrows(IllegalArgumentException.class, () -> TaskJsonReader.parse(
+                "{\"title\":\"x\",\"startTime\":\"2025-10-06T09:00\",\"duration\":-5}", TaskType.TASK),
+                "Отрицательная длительность не принимается");
+    }
+}
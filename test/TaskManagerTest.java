@@ -1,4 +1,6 @@
 import manager.InMemoryTaskManager;
+import manager.TaskEvent;
+import manager.TaskEventBus;
 import manager.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -6,7 +8,11 @@ import tasks.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -127,4 +133,378 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(Status.DONE, epic.getStatus());
     }
+
+    @Test
+    public void testOverlappingTasksAreNotPrioritized() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0);
+        Task morning = new Task("Morning", "Desc", Status.NEW, start, Duration.ofMinutes(60));
+        Task noon = new Task("Noon", "Desc", Status.NEW, start.plusHours(3), Duration.ofMinutes(60));
+        manager.addTask(morning);
+        manager.addTask(noon);
+
+        Task overlapping = new Task("Overlap", "Desc", Status.NEW, start.plusMinutes(30), Duration.ofMinutes(180));
+        manager.addTask(overlapping);
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(2, prioritized.size(), "Пересекающаяся задача не должна попасть в приоритеты");
+        assertEquals(morning, prioritized.get(0));
+        assertEquals(noon, prioritized.get(1));
+
+        List<Task> conflicts = manager.getOverlappingTasks(overlapping);
+        assertEquals(List.of(morning, noon), conflicts);
+
+        Task adjacent = new Task("Adjacent", "Desc", Status.NEW, start.plusHours(1), Duration.ofMinutes(60));
+        assertTrue(manager.getOverlappingTasks(adjacent).isEmpty(), "Смежные интервалы не пересекаются");
+    }
+
+    @Test
+    public void testWithoutOverlapVariantsRejectConflicts() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0);
+        int morningId = manager.addTaskWithoutOverlap(new Task("Morning", "Desc", Status.NEW, start, Duration.ofMinutes(60)));
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+
+        assertThrows(TaskOverlapException.class, () -> manager.addTaskWithoutOverlap(
+                new Task("Overlap", "Desc", Status.NEW, start.plusMinutes(30), Duration.ofMinutes(60))));
+        assertThrows(TaskOverlapException.class, () -> manager.addSubtaskWithoutOverlap(
+                new Subtask("Overlap", "Desc", Status.NEW, epicId, start, Duration.ofMinutes(15))));
+        assertEquals(1, manager.getAllTasks().size(), "Отклонённая задача не должна добавляться");
+        assertTrue(manager.getAllSubtasks().isEmpty(), "Отклонённая подзадача не должна добавляться");
+
+        int subtaskId = manager.addSubtaskWithoutOverlap(
+                new Subtask("Later", "Desc", Status.NEW, epicId, start.plusHours(2), Duration.ofMinutes(30)));
+        assertThrows(TaskOverlapException.class, () -> manager.updateSubtaskWithoutOverlap(
+                new Subtask(subtaskId, "Later", "Desc", Status.NEW, epicId, start.plusMinutes(45), Duration.ofMinutes(30),
+                        start.plusMinutes(75))));
+        assertEquals(start.plusHours(2), manager.getSubtask(subtaskId).getStartTime());
+
+        // Своё прежнее время задаче не мешает
+        assertTrue(manager.updateTaskWithoutOverlap(
+                new Task(morningId, "Morning", "Desc", Status.DONE, start.plusMinutes(30), Duration.ofMinutes(60))));
+        assertThrows(TaskOverlapException.class, () -> manager.updateTaskWithoutOverlap(
+                new Task(morningId, "Morning", "Desc", Status.DONE, start.plusHours(2), Duration.ofMinutes(60))));
+        assertEquals(Status.DONE, manager.getTask(morningId).getStatus());
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    public void testTimeRangeQueries() {
+        LocalDateTime day = LocalDateTime.of(2025, 10, 6, 0, 0);
+        Task night = new Task("Night", "Desc", Status.NEW, day.minusHours(1), Duration.ofHours(2));
+        Task morning = new Task("Morning", "Desc", Status.NEW, day.plusHours(9), Duration.ofHours(1));
+        Task reminder = new Task("Reminder", "Desc", Status.NEW, day.plusHours(12), Duration.ZERO);
+        Task call = new Task("Call", "Desc", Status.NEW, day.plusHours(12), Duration.ZERO);
+        Task tomorrow = new Task("Tomorrow", "Desc", Status.NEW, day.plusDays(1), Duration.ofHours(1));
+        for (Task task : List.of(night, morning, reminder, call, tomorrow)) {
+            manager.addTask(task);
+        }
+
+        assertEquals(5, manager.getPrioritizedTasks().size(), "Задачи с одинаковым началом не должны схлопываться");
+        assertEquals(List.of(night, morning, reminder, call), manager.getTasksBetween(day, day.plusDays(1)));
+        assertEquals(List.of(morning), manager.getTasksBetween(day.plusHours(2), day.plusHours(10)));
+        assertTrue(manager.getTasksBetween(day.plusHours(10), day.plusHours(10)).isEmpty());
+
+        assertEquals(List.of(reminder, call, tomorrow), manager.getNextTasks(day.plusHours(10), 10));
+        assertEquals(List.of(morning), manager.getNextTasks(day.plusHours(9), 1));
+
+        assertEquals(List.of(night), manager.getTasksActiveAt(day));
+        assertEquals(List.of(morning), manager.getTasksActiveAt(day.plusHours(9).plusMinutes(30)));
+        assertTrue(manager.getTasksActiveAt(day.plusHours(10)).isEmpty(), "Конец задачи не входит в её интервал");
+
+        manager.removeTask(reminder.getId());
+        assertEquals(List.of(call), manager.getTasksBetween(day.plusHours(11), day.plusHours(13)));
+    }
+
+    @Test
+    public void testFreeSlotsAndAutoScheduling() {
+        LocalDateTime day = LocalDateTime.of(2025, 10, 6, 9, 0);
+        manager.addTask(new Task("Standup", "Desc", Status.NEW, day, Duration.ofMinutes(30)));
+        manager.addTask(new Task("Review", "Desc", Status.NEW, day.plusHours(1), Duration.ofMinutes(60)));
+
+        assertEquals(day.plusMinutes(30), manager.findFreeSlot(Duration.ofMinutes(30), day, null));
+        assertEquals(day.plusHours(2), manager.findFreeSlot(Duration.ofMinutes(31), day, null));
+        assertEquals(day.plusMinutes(30), manager.findFreeSlot(Duration.ofMinutes(10), day.plusMinutes(15), null));
+        assertNull(manager.findFreeSlot(Duration.ofHours(1), day, day.plusHours(2)));
+
+        Task longTask = new Task("Long", "Desc", Status.NEW);
+        longTask.setDuration(Duration.ofMinutes(45));
+        Task shortTask = new Task("Short", "Desc", Status.NEW);
+        shortTask.setDuration(Duration.ofMinutes(20));
+        Task tooLong = new Task("Too long", "Desc", Status.NEW);
+        tooLong.setDuration(Duration.ofHours(3));
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        Subtask subtask = new Subtask("Subtask", "Desc", epicId, day.plusHours(4), Duration.ofMinutes(10));
+        manager.addTask(longTask);
+        manager.addTask(shortTask);
+        manager.addTask(tooLong);
+        manager.addSubtask(subtask);
+
+        List<Task> placed = manager.scheduleTasks(List.of(longTask, shortTask, subtask, tooLong),
+                day, day.plusHours(4));
+
+        assertEquals(List.of(longTask, shortTask, subtask), placed);
+        assertEquals(day.plusHours(2), longTask.getStartTime(), "Первая задача занимает первый подходящий промежуток");
+        assertEquals(day.plusMinutes(30), shortTask.getStartTime(), "Короткая задача помещается в ранний промежуток");
+        assertEquals(day.plusMinutes(50), subtask.getStartTime(), "Подзадача занимает остаток раннего промежутка");
+        assertNull(tooLong.getStartTime());
+        assertEquals(subtask.getStartTime(), manager.getEpic(epicId).getStartTime());
+        assertEquals(5, manager.getPrioritizedTasks().size());
+        for (Task task : manager.getPrioritizedTasks()) {
+            assertTrue(manager.getOverlappingTasks(task).isEmpty());
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.scheduleTasks(List.of(manager.getEpic(epicId)), day, null));
+    }
+
+    @Test
+    public void testFailedSchedulingLeavesTaskTimesUnchanged() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task first = new Task("First", "Desc", Status.NEW, start, Duration.ofMinutes(30));
+        manager.addTask(first);
+        Task negative = new Task("Negative", "Desc", Status.NEW);
+        negative.setDuration(Duration.ofMinutes(-5));
+        manager.addTask(negative);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.scheduleTasks(List.of(first, negative), start.plusDays(1), null));
+
+        assertEquals(start, first.getStartTime(), "Ошибка планирования не должна менять время задач пакета");
+        assertEquals(start, manager.getTask(first.getId()).getStartTime());
+        assertEquals(List.of(manager.getTask(first.getId())), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void testEpicAggregatesFollowSubtaskChanges() {
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0);
+
+        int first = manager.addSubtask(new Subtask("Sub 1", "Desc", Status.NEW, epicId, start.plusHours(2), Duration.ofMinutes(30)));
+        int second = manager.addSubtask(new Subtask("Sub 2", "Desc", Status.IN_PROGRESS, epicId, start, Duration.ofMinutes(60)));
+        manager.addSubtask(new Subtask("Sub 3", "Desc", Status.DONE, epicId));
+
+        Epic epic = manager.getEpic(epicId);
+        assertEquals(3, manager.getEpicSubtasks(epicId).size());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(start, epic.getStartTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+        assertEquals(start.plusMinutes(90), epic.getEndTime());
+
+        manager.updateSubtask(new Subtask(second, "Sub 2", "Desc", Status.DONE, epicId,
+                start.plusHours(4), Duration.ofMinutes(15), null));
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(start.plusHours(2), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(45), epic.getDuration());
+
+        manager.removeSubtask(first);
+        assertEquals(2, manager.getEpicSubtasks(epicId).size());
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(start.plusHours(4), epic.getStartTime());
+
+        manager.clearSubtasks();
+        assertTrue(manager.getEpicSubtasks(epicId).isEmpty());
+        assertNull(epic.getStartTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    @Test
+    public void testRunInBatchCommitsAllChanges() {
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        manager.runInBatch(batch -> {
+            batch.addTask(new Task("Task 1", "Desc", Status.NEW));
+            batch.addSubtask(new Subtask("Sub 1", "Desc", Status.DONE, epicId));
+            batch.addSubtask(new Subtask("Sub 2", "Desc", Status.IN_PROGRESS, epicId));
+        });
+
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals(2, manager.getEpicSubtasks(epicId).size());
+        assertEquals(Status.IN_PROGRESS, manager.getEpic(epicId).getStatus(), "Статус эпика пересчитывается по завершении пакета");
+    }
+
+    @Test
+    public void testRunInBatchRollsBackOnFailure() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0);
+        int taskId = manager.addTask(new Task("Task", "Desc", Status.NEW, start, Duration.ofMinutes(30)));
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.addSubtask(new Subtask("Sub", "Desc", Status.NEW, epicId));
+        manager.getTask(taskId);
+
+        assertThrows(IllegalStateException.class, () -> manager.runInBatch(batch -> {
+            batch.addTask(new Task("New", "Desc", Status.NEW, start.plusHours(1), Duration.ofMinutes(30)));
+            batch.updateTask(new Task(taskId, "Changed", "Desc", Status.DONE, start.plusHours(5), Duration.ofMinutes(30)));
+            batch.updateSubtask(new Subtask(subtaskId, "Sub", "Desc", Status.DONE, epicId, null, null, null));
+            batch.removeEpic(epicId);
+            batch.clearTasks();
+            throw new IllegalStateException("Сбой пакета");
+        }));
+
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals("Task", manager.getTask(taskId).getTitle());
+        assertEquals(List.of(manager.getTask(taskId)), manager.getPrioritizedTasks());
+        assertEquals(1, manager.getEpicSubtasks(epicId).size());
+        assertEquals(Status.NEW, manager.getEpic(epicId).getStatus());
+        assertEquals(Status.NEW, manager.getSubtask(subtaskId).getStatus());
+    }
+
+    @Test
+    public void testSessionHistoriesAreIndependent() {
+        int taskId = manager.addTask(new Task("Task", "Desc", Status.NEW));
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+
+        manager.getTask(taskId, "alice");
+        manager.getEpic(epicId, "bob");
+        manager.getTask(taskId, "bob");
+
+        assertEquals(List.of(taskId), manager.getHistory("alice").stream().map(Task::getId).toList());
+        assertEquals(List.of(epicId, taskId), manager.getHistory("bob").stream().map(Task::getId).toList());
+        assertTrue(manager.getHistory().isEmpty(), "Просмотры сессий не должны попадать в общую историю");
+        assertTrue(manager.getHistory("carol").isEmpty());
+
+        manager.removeTask(taskId);
+        assertTrue(manager.getHistory("alice").isEmpty(), "Удалённая задача должна исчезнуть из историй всех сессий");
+        assertEquals(List.of(epicId), manager.getHistory("bob").stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void testPagesAndStreamsWalkWithoutGaps() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 6, 9, 0);
+        for (int i = 0; i < 25; i++) {
+            manager.addTask(new Task("Task " + i, "Desc", Status.NEW, start.plusHours(i), Duration.ofMinutes(30)));
+        }
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        manager.addSubtask(new Subtask("Subtask", "Desc", Status.NEW, epicId));
+        int removedId = manager.getTasksPage(0, 3).get(2).getId();
+        manager.removeTask(removedId);
+
+        assertEquals(24, manager.count(TaskType.TASK));
+        assertEquals(1, manager.count(TaskType.EPIC));
+        assertEquals(1, manager.count(TaskType.SUBTASK));
+
+        List<Integer> paged = new ArrayList<>();
+        int afterId = 0;
+        List<Task> page;
+        while (!(page = manager.getTasksPage(afterId, 10)).isEmpty()) {
+            assertTrue(page.size() <= 10);
+            for (Task task : page) {
+                assertTrue(task.getId() > afterId, "Страница должна идти по возрастанию id");
+                paged.add(task.getId());
+                afterId = task.getId();
+            }
+        }
+        assertEquals(24, paged.size());
+        assertFalse(paged.contains(removedId));
+        assertEquals(manager.streamTasks().map(Task::getId).sorted().toList(), paged);
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        List<Task> firstPage = manager.getPrioritizedTasks(null, 5);
+        assertEquals(prioritized.subList(0, 5), firstPage);
+        assertEquals(prioritized.subList(5, 10), manager.getPrioritizedTasks(firstPage.get(4), 5));
+
+        assertEquals(1, manager.getEpicsPage(0, 10).size());
+        assertEquals(1, manager.getSubtasksPage(0, 10).size());
+        assertEquals(1, manager.streamEpicSubtasks(epicId).count());
+        assertEquals(0, manager.streamEpicSubtasks(-1).count());
+    }
+
+    @Test
+    public void testFindTasksFollowsChanges() {
+        LocalDateTime monday = LocalDateTime.of(2025, 10, 6, 9, 0);
+        int taskId = manager.addTask(new Task("Task", "Desc", Status.NEW, monday, Duration.ofMinutes(30)));
+        int untimedId = manager.addTask(new Task("Untimed", "Desc", Status.IN_PROGRESS));
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.addSubtask(new Subtask("Subtask", "Desc", epicId,
+                monday.plusDays(1), Duration.ofMinutes(30)));
+
+        assertEquals(List.of(taskId), ids(manager.findTasks(TaskType.TASK, Status.NEW, null)));
+        assertEquals(List.of(untimedId), ids(manager.findTasks(null, Status.IN_PROGRESS, null)));
+        assertEquals(List.of(taskId), ids(manager.findTasks(null, null, monday.toLocalDate())));
+        assertEquals(List.of(epicId, subtaskId), ids(manager.findTasks(null, null, monday.toLocalDate().plusDays(1))),
+                "Эпик получает время начала от подзадачи");
+        assertTrue(manager.findTasks(null, null, monday.toLocalDate().plusDays(7)).isEmpty());
+
+        manager.updateSubtask(new Subtask(subtaskId, "Subtask", "Desc", Status.DONE, epicId,
+                monday.plusDays(1), Duration.ofMinutes(30), null));
+        assertEquals(List.of(epicId, subtaskId), ids(manager.findTasks(null, Status.DONE, null)),
+                "Статус эпика пересчитывается вместе с индексом");
+
+        manager.updateTask(new Task(taskId, "Task", "Desc", Status.DONE, monday, Duration.ofMinutes(30)));
+        assertEquals(List.of(taskId), ids(manager.findTasks(TaskType.TASK, Status.DONE, null)));
+        assertTrue(manager.findTasks(TaskType.TASK, Status.NEW, null).isEmpty());
+
+        manager.removeEpic(epicId);
+        assertEquals(List.of(taskId), ids(manager.findTasks(null, Status.DONE, null)));
+        manager.clearAll();
+        assertTrue(manager.findTasks(null, null, null).isEmpty());
+    }
+
+    @Test
+    public void testSearchRanksTitleMatchesFirst() {
+        int inDescription = manager.addTask(new Task("Купить продукты", "Хлеб, молоко и отчёт для бухгалтерии", Status.NEW));
+        int inTitle = manager.addTask(new Task("Квартальный отчёт", "Собрать цифры", Status.NEW));
+        int epicId = manager.addEpic(new Epic("Отчётность", "Все отчёты за год"));
+        int subtaskId = manager.addSubtask(new Subtask("Отчёт за март", "Черновик", Status.NEW, epicId));
+
+        assertEquals(List.of(inTitle, subtaskId, inDescription, epicId), ids(manager.search("ОТЧЁТ", 10)),
+                "Полное совпадение в названии выше остальных, при равной оценке меньший id первым");
+        assertEquals(List.of(subtaskId), ids(manager.search("отч мар", 10)), "Все слова запроса должны совпасть");
+        assertEquals(2, manager.search("отчёт", 2).size());
+        assertTrue(manager.search("несуществующее", 10).isEmpty());
+        assertTrue(manager.search("  ", 10).isEmpty());
+
+        manager.updateTask(new Task(inTitle, "Годовой план", "Собрать цифры", Status.NEW, null, Duration.ZERO));
+        assertEquals(List.of(inTitle), ids(manager.search("годовой", 10)));
+        assertFalse(ids(manager.search("квартальный", 10)).contains(inTitle), "Старый текст должен уйти из индекса");
+
+        manager.removeEpic(epicId);
+        assertEquals(List.of(inDescription), ids(manager.search("отчёт", 10)));
+    }
+
+    @Test
+    public void testChangeEventsArePublishedPerChange() throws InterruptedException {
+        BlockingQueue<List<TaskEvent>> changes = new LinkedBlockingQueue<>();
+        TaskEventBus.Subscription subscription = manager.subscribe(changes::add, 16, TaskEventBus.Overflow.BLOCK);
+
+        int taskId = manager.addTask(new Task("Task", "Desc", Status.NEW));
+        assertEquals(List.of("CREATED TASK " + taskId + " null -> NEW"), describe(changes));
+
+        int epicId = manager.addEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.addSubtask(new Subtask("Subtask", "Desc", Status.NEW, epicId));
+        assertEquals(List.of("CREATED EPIC " + epicId + " null -> NEW"), describe(changes));
+        assertEquals(List.of("CREATED SUBTASK " + subtaskId + " null -> NEW"), describe(changes));
+
+        Subtask done = new Subtask("Subtask", "Desc", Status.DONE, epicId);
+        done.setId(subtaskId);
+        manager.updateSubtask(done);
+        assertEquals(List.of("UPDATED SUBTASK " + subtaskId + " NEW -> DONE", "UPDATED EPIC " + epicId + " NEW -> DONE"),
+                describe(changes), "Смена статуса эпика из-за подзадачи публикуется в том же изменении");
+
+        manager.runInBatch(m -> {
+            m.updateTask(new Task(taskId, "Task", "Desc", Status.IN_PROGRESS, null, Duration.ZERO));
+            m.removeEpic(epicId);
+        });
+        assertEquals(List.of("UPDATED TASK " + taskId + " NEW -> IN_PROGRESS",
+                "REMOVED SUBTASK " + subtaskId + " DONE -> null", "REMOVED EPIC " + epicId + " DONE -> null"),
+                describe(changes), "Пакет публикуется одним изменением");
+
+        assertThrows(IllegalStateException.class, () -> manager.runInBatch(m -> {
+            m.removeTask(taskId);
+            throw new IllegalStateException("откат");
+        }));
+        manager.clearAll();
+        assertEquals(List.of("CLEARED TASK", "CLEARED SUBTASK", "CLEARED EPIC"), describe(changes),
+                "События откатанного пакета не публикуются");
+
+        subscription.close();
+        manager.addTask(new Task("After close", "Desc", Status.NEW));
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static List<String> describe(BlockingQueue<List<TaskEvent>> changes) throws InterruptedException {
+        List<TaskEvent> events = changes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(events, "Изменение должно быть доставлено");
+        return events.stream().map(TaskEvent::toString).toList();
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
 }